@@ -0,0 +1,29 @@
+/**
+ * Watches each side's XP and starts loading the next age's unit sprites
+ * and base on the AssetPreloader's threads once a side is most of the way
+ * to the next age, so advancing an age never has to load on the game thread.
+ * 
+ * @author Ricardo Lee
+ */
+public class AgePrefetcher
+{
+    // Fraction of the next age's XP threshold at which loading starts
+    private static final double PREFETCH_FRACTION = 0.8;
+    
+    private boolean[] requested = new boolean[5]; // Indexed by age
+    
+    /**
+     * Checks a side's progress towards its next age and prefetches it if
+     * the side is close enough. Each age is only requested once.
+     */
+    public void check(int age, int xp, int nextAgeThreshold) {
+        int nextAge = age + 1;
+        if (nextAge > 4 || requested[nextAge]) {
+            return;
+        }
+        if (xp >= nextAgeThreshold * PREFETCH_FRACTION) {
+            requested[nextAge] = true;
+            AssetPreloader.prefetchAge(nextAge);
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,4 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
-import java.io.File;
 import java.util.ArrayList;
 
 /**
@@ -8,37 +7,40 @@ import java.util.ArrayList;
 public class Animator
 {
     // Instance Variables
-    private ArrayList<GreenfootImage> animation;
-    private ArrayList<GreenfootImage> originalImages; // Store original unflipped images
+    private String directoryPath;
+    private SpriteSet sprites; // Shared frames from the SpriteCache
+    private GreenfootImage[] animation;
+    private boolean ownsFrames; // True once scale made private copies
     private int animationSpeed;
-    private SimpleTimer animationTimer;
+    private int ticksPerFrame; // animationSpeed converted to GameClock ticks
+    private long lastFrameTick;
     private int imageIndex;
     private boolean pause;
     private boolean isFlipped;
     
     /**
-     * Constructs a new Animator with images loaded from the specified directory.
+     * Constructs a new Animator playing the frames of the specified directory.
+     * The frames come from the SpriteCache, so only the first Animator for a
+     * directory decodes images.
      */
     public Animator(String directoryPath) {
-        // Get all files in the directory
-        File directory = new File(directoryPath);
-        File[] files = directory.listFiles();
-        // Add them to the ArrayList
-        animation = new ArrayList<GreenfootImage>();
-        originalImages = new ArrayList<GreenfootImage>();
-        for (File file : files) {
-            GreenfootImage img = new GreenfootImage(directoryPath + "/" + file.getName());
-            animation.add(img);
-            // Store a copy of the original image
-            originalImages.add(new GreenfootImage(img));
-        }
-        // Init Timer for Animation
-        animationTimer = new SimpleTimer();
-        animationTimer.mark();
+        this(directoryPath, false);
+    }
+    
+    /**
+     * Constructs a new Animator playing the frames of the specified directory,
+     * using the cached pre-mirrored frames when mirrored is true.
+     */
+    public Animator(String directoryPath, boolean mirrored) {
+        this.directoryPath = directoryPath;
+        sprites = SpriteCache.getFrames(directoryPath, mirrored);
+        useSharedFrames();
+        // Frames advance on GameClock ticks
+        lastFrameTick = GameClock.getTick();
         imageIndex = 0;
-        animationSpeed = 100; // Default speed
+        setSpeed(100); // Default speed
         pause = false;
-        isFlipped = false;
+        isFlipped = mirrored;
     }
     
     /**
@@ -47,6 +49,12 @@ public class Animator
      */
     public void flip() {
         isFlipped = !isFlipped;
+        if (!ownsFrames) {
+            // Swap to the other cached variant instead of mirroring every frame
+            sprites = SpriteCache.getFrames(directoryPath, isFlipped);
+            useSharedFrames();
+            return;
+        }
         for (GreenfootImage a : animation) {
             a.mirrorHorizontally();
         }
@@ -56,6 +64,7 @@ public class Animator
      * Scales all animation images to the specified dimensions.
      */
     public void scale(int x, int y) {
+        copyFrames();
         for (GreenfootImage a : animation) {
             a.scale(x, y);
         }
@@ -73,17 +82,42 @@ public class Animator
      * Resets all animation images to their original unflipped state.
      */
     public void resetToOriginal() {
-        for (int i = 0; i < animation.size(); i++) {
-            animation.set(i, new GreenfootImage(originalImages.get(i)));
-        }
+        sprites = SpriteCache.getFrames(directoryPath);
+        useSharedFrames();
         isFlipped = false;
     }
     
+    /**
+     * Points the animation back at the shared, unmodified frames
+     */
+    private void useSharedFrames() {
+        animation = new GreenfootImage[sprites.getSize()];
+        for (int i = 0; i < animation.length; i++) {
+            animation[i] = sprites.getFrame(i);
+        }
+        ownsFrames = false;
+    }
+    
+    /**
+     * Replaces the shared frames with private copies before they are modified
+     */
+    private void copyFrames() {
+        if (ownsFrames) {
+            return;
+        }
+        for (int i = 0; i < animation.length; i++) {
+            animation[i] = new GreenfootImage(animation[i]);
+        }
+        ownsFrames = true;
+    }
+    
     /**
      * Sets the animation speed in milliseconds between frames.
+     * The delay is counted in GameClock ticks at the nominal act rate.
      */
     public void setSpeed(int s) {
         animationSpeed = s;
+        ticksPerFrame = GameClock.millisToTicks(s);
     }
     
     /**
@@ -99,12 +133,13 @@ public class Animator
      */
     private void changeAnimation() {
         // Change frame according to the speed set
-        if (animationTimer.millisElapsed() < animationSpeed || pause) {
+        long now = GameClock.getTick();
+        if (now - lastFrameTick < ticksPerFrame || pause) {
             return;
         }
         // Set animation image to next frame
-        animationTimer.mark();
-        imageIndex = (imageIndex + 1) % animation.size();
+        lastFrameTick = now;
+        imageIndex = (imageIndex + 1) % animation.length;
     }
     
     /**
@@ -113,7 +148,30 @@ public class Animator
      */
     public GreenfootImage getCurrentFrame() {
         changeAnimation();
-        return animation.get(imageIndex);
+        return animation[imageIndex];
+    }
+    
+    /**
+     * Gets the hitbox of the frame shown last as {left, top, right, bottom}
+     * relative to the actor's location, or null once the frames were scaled
+     * and no longer match the cached hitboxes.
+     */
+    public int[] getCurrentHitbox() {
+        if (ownsFrames) {
+            return null;
+        }
+        return sprites.getHitbox(imageIndex);
+    }
+    
+    /**
+     * Gets the box holding the hitboxes of all frames, relative to the
+     * actor's location, or null once the frames were scaled
+     */
+    public int[] getBounds() {
+        if (ownsFrames) {
+            return null;
+        }
+        return sprites.getBounds();
     }
     
     /**
@@ -126,10 +184,16 @@ public class Animator
     
     /**
      * Gets the list of animation images.
-     * Returns ArrayList containing all animation frame images.
+     * Returns ArrayList containing all animation frame images. Unless the
+     * animation was flipped or scaled these are the shared cached frames,
+     * so they must not be modified.
      */
     public ArrayList<GreenfootImage> getImages() {
-        return animation;
+        ArrayList<GreenfootImage> images = new ArrayList<GreenfootImage>();
+        for (GreenfootImage a : animation) {
+            images.add(a);
+        }
+        return images;
     }
     
     /**
@@ -137,7 +201,7 @@ public class Animator
      * Returns the total number of animation frames.
      */
     public int getSize() {
-        return animation.size();
+        return animation.length;
     }
     
     /**
@@ -0,0 +1,175 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Area of effect queries and splash damage for skills. Answers "enemies of
+ * a side within a radius of a point" from the x-sorted lane indexes using
+ * squared distances, and collects the blasts of an act so they can all be
+ * applied in one pass over each lane.
+ * 
+ * Skills queue blasts while they act. The service is itself an invisible
+ * actor that MyWorld orders to act after every other actor, so the blasts
+ * of a tick are applied at the end of that same tick.
+ * 
+ * @author Ricardo Lee
+ */
+public class AreaEffects extends Actor
+{
+    private LaneIndex lane1;
+    private LaneIndex lane2;
+    private ArrayList<Blast> pending = new ArrayList<Blast>();
+    private int blastsApplied = 0;
+    
+    /**
+     * Creates the service over the lane indexes of a battle
+     */
+    public AreaEffects(LaneIndex lane1, LaneIndex lane2) {
+        this.lane1 = lane1;
+        this.lane2 = lane2;
+        setImage(new GreenfootImage(1, 1));
+    }
+    
+    /**
+     * Applies the blasts queued during this act, once every skill has acted
+     */
+    public void act() {
+        applyBlasts();
+    }
+    
+    /**
+     * Finds the enemies of a side whose centres are within radius of a point
+     */
+    public List<Unit> findEnemies(int side, int x, int y, int radius) {
+        List<Unit> found = new ArrayList<Unit>();
+        getEnemyLane(side).collectWithin(x, y, radius, found);
+        return found;
+    }
+    
+    /**
+     * Queues splash damage from a skill of ownerSide to every enemy within
+     * radius of a point
+     */
+    public void queueBlast(int ownerSide, int x, int y, int radius, int damage) {
+        pending.add(new Blast(ownerSide, x, y, radius, damage));
+    }
+    
+    /**
+     * Applies every queued blast. Each lane is walked once in x order while
+     * the blasts overlapping the current x are kept in an active list.
+     */
+    public void applyBlasts() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Blast[] blasts = pending.toArray(new Blast[pending.size()]);
+        pending.clear();
+        Arrays.sort(blasts, new Comparator<Blast>() {
+            public int compare(Blast a, Blast b) {
+                return Integer.compare(a.x - a.radius, b.x - b.radius);
+            }
+        });
+        applyToLane(lane1, 1, blasts);
+        applyToLane(lane2, 2, blasts);
+        blastsApplied += blasts.length;
+    }
+    
+    /**
+     * Drops every queued blast without applying it
+     */
+    public void clear() {
+        pending.clear();
+    }
+    
+    /**
+     * Gets the number of blasts applied so far
+     */
+    public int getBlastsApplied() {
+        return blastsApplied;
+    }
+    
+    /**
+     * Splash damage from a skill of ownerSide in any world. Queued for the
+     * next batch in a MyWorld, applied right away anywhere else.
+     */
+    public static void blast(World world, int ownerSide, int x, int y, int radius, int damage) {
+        if (world instanceof MyWorld) {
+            ((MyWorld) world).getAreaEffects().queueBlast(ownerSide, x, y, radius, damage);
+        } else {
+            damageNow(world, ownerSide, x, y, radius, damage);
+        }
+    }
+    
+    /**
+     * Damages the enemies of ownerSide within radius right away, for worlds
+     * without lane indexes
+     */
+    private static void damageNow(World world, int ownerSide, int x, int y, int radius, int damage) {
+        long radiusSquared = (long) radius * radius;
+        for (Unit unit : world.getObjects(Unit.class)) {
+            long dx = unit.getX() - x;
+            long dy = unit.getY() - y;
+            if (dx * dx + dy * dy <= radiusSquared && unit.getSide() != ownerSide) {
+                unit.hitBySpecialSkill(damage, ownerSide);
+            }
+        }
+    }
+    
+    private void applyToLane(LaneIndex lane, int side, Blast[] blasts) {
+        ArrayList<Blast> active = new ArrayList<Blast>();
+        int next = 0;
+        int drift = LaneIndex.MAX_DRIFT;
+        for (int i = 0; i < lane.size(); i++) {
+            Unit unit = lane.get(i);
+            int indexedX = lane.getIndexedX(i);
+            // Blasts starting at or before this unit become active
+            while (next < blasts.length && blasts[next].x - blasts[next].radius <= indexedX + drift) {
+                if (blasts[next].ownerSide != side) {
+                    active.add(blasts[next]);
+                }
+                next++;
+            }
+            for (int j = active.size() - 1; j >= 0; j--) {
+                Blast blast = active.get(j);
+                if (blast.x + blast.radius < indexedX - drift) {
+                    active.remove(j); // Lane is sorted, no later unit can be in it
+                    continue;
+                }
+                long dx = unit.getX() - blast.x;
+                long dy = unit.getY() - blast.y;
+                if (dx * dx + dy * dy <= (long) blast.radius * blast.radius && unit.getWorld() != null) {
+                    unit.hitBySpecialSkill(blast.damage, blast.ownerSide);
+                }
+            }
+            if (active.isEmpty() && next == blasts.length) {
+                break;
+            }
+        }
+    }
+    
+    private LaneIndex getEnemyLane(int side) {
+        return side == 1 ? lane2 : lane1;
+    }
+    
+    /**
+     * One queued explosion
+     */
+    private static class Blast {
+        int ownerSide;
+        int x;
+        int y;
+        int radius;
+        int damage;
+        
+        Blast(int ownerSide, int x, int y, int radius, int damage) {
+            this.ownerSide = ownerSide;
+            this.x = x;
+            this.y = y;
+            this.radius = radius;
+            this.damage = damage;
+        }
+    }
+}
+    
\ No newline at end of file
@@ -0,0 +1,156 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes every sprite the battle needs into the SpriteCache on a pool of
+ * background threads, so MyWorld starts with a warm cache and never waits
+ * on image loading during play. The StartScreen starts it and shows its
+ * progress.
+ * 
+ * @author Ricardo Lee
+ */
+public class AssetPreloader
+{
+    private static final String[] TIERS = { "low", "mid", "high" };
+    private static final String[] ACTIONS = { "walk", "attack", "death" };
+    
+    private static ExecutorService pool;
+    private static AtomicInteger total = new AtomicInteger();
+    private static AtomicInteger completed = new AtomicInteger();
+    private static AtomicInteger failed = new AtomicInteger();
+    private static AtomicBoolean started = new AtomicBoolean(false);
+    private static volatile boolean allQueued = false; // Set once start() has queued everything
+    
+    /**
+     * Starts preloading all battle assets. Calling it again does nothing.
+     */
+    public static synchronized void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        for (int age = 1; age <= 4; age++) {
+            submitAge(age);
+        }
+        submit(new Runnable() {
+            public void run() {
+                ExplosionFrames.prepareAll();
+            }
+        });
+        submitFrames("images/plane", false);
+        submit(new Runnable() {
+            public void run() {
+                SoundManager.preload();
+                MusicManager.create();
+            }
+        });
+        allQueued = true;
+    }
+    
+    /**
+     * Queues the unit frames, in both directions, and the bases of an age
+     */
+    public static synchronized void submitAge(int age) {
+        for (String tier : TIERS) {
+            for (String action : ACTIONS) {
+                String directoryPath = "images/age" + age + "/" + tier + "/" + action;
+                if (SpriteCache.hasFrames(directoryPath)) {
+                    submitFrames(directoryPath, false);
+                    submitFrames(directoryPath, true);
+                }
+            }
+        }
+        final String basePath = "images/bases/" + age + ".png";
+        submit(new Runnable() {
+            public void run() {
+                // Same fit and mirroring as Tower uses for sides 1 and 2
+                SpriteCache.getImage(basePath, 200, 300, false);
+                SpriteCache.getImage(basePath, 200, 300, true);
+            }
+        });
+    }
+    
+    /**
+     * Loads an age in the background unless all of it is cached already.
+     * Used to fetch the next age shortly before a side reaches it.
+     */
+    public static synchronized void prefetchAge(int age) {
+        for (String tier : TIERS) {
+            for (String action : ACTIONS) {
+                String directoryPath = "images/age" + age + "/" + tier + "/" + action;
+                if (SpriteCache.hasFrames(directoryPath) && 
+                    (!SpriteCache.isLoaded(directoryPath, false) || !SpriteCache.isLoaded(directoryPath, true))) {
+                    submitAge(age);
+                    return;
+                }
+            }
+        }
+        if (!SpriteCache.isImageLoaded("images/bases/" + age + ".png", 200, 300, false) ||
+            !SpriteCache.isImageLoaded("images/bases/" + age + ".png", 200, 300, true)) {
+            submitAge(age);
+        }
+    }
+    
+    /**
+     * Checks if everything queued so far has been loaded
+     */
+    public static boolean isDone() {
+        // Not done while start() is still queueing, even if the queue ran dry
+        return allQueued && completed.get() >= total.get();
+    }
+    
+    /**
+     * Gets the fraction of queued work finished, from 0.0 to 1.0
+     */
+    public static double getProgress() {
+        int queued = total.get();
+        if (queued == 0) {
+            return allQueued ? 1.0 : 0.0;
+        }
+        return (double) completed.get() / queued;
+    }
+    
+    /**
+     * Gets the number of tasks that failed, for example a missing image
+     */
+    public static int getFailed() {
+        return failed.get();
+    }
+    
+    private static void submitFrames(final String directoryPath, final boolean mirrored) {
+        submit(new Runnable() {
+            public void run() {
+                SpriteCache.getFrames(directoryPath, mirrored);
+            }
+        });
+    }
+    
+    private static void submit(final Runnable task) {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "asset-preloader");
+                    thread.setDaemon(true); // Never keeps the game from closing
+                    return thread;
+                }
+            });
+        }
+        total.incrementAndGet();
+        pool.execute(new Runnable() {
+            public void run() {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    // A missing asset is loaded (and reported) again on first use
+                    failed.incrementAndGet();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            }
+        });
+    }
+}
+    
\ No newline at end of file
@@ -0,0 +1,280 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps decoded (and already scaled) images on disk as raw pixels so later
+ * launches can skip PNG decoding. Entries live in the .spritecache
+ * directory, one file per source file and size. Pixels are stored in the
+ * layout of a fresh GreenfootImage, so loading is one channel read and one
+ * copy straight into the new image's pixel array. Entries are read rather
+ * than memory-mapped, since a live mapping would keep the file locked on
+ * Windows and stop a stale entry from being replaced.
+ *
+ * Each entry remembers which source file it was made from, with its length
+ * and modification time. If the source changes, the entry is rebuilt the
+ * next time it is loaded. Any problem with the cache just falls back to
+ * normal decoding.
+ *
+ * @author Ricardo Lee
+ */
+public class DiskImageCache
+{
+    public static final String CACHE_DIRECTORY = ".spritecache";
+    
+    private static final int MAGIC = 0x53505243; // "SPRC"
+    private static final int VERSION = 2;
+    // Magic, version, source length and time, key length, width, height, pixel type
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4;
+    
+    private static boolean enabled = true;
+    private static AtomicInteger hits = new AtomicInteger();
+    private static AtomicInteger misses = new AtomicInteger();
+    
+    /**
+     * Loads an image at its original size
+     */
+    public static GreenfootImage load(String path) {
+        return load(path, -1, -1, 1.0);
+    }
+    
+    /**
+     * Loads an image scaled by a factor, sized like (int)(width * factor)
+     */
+    public static GreenfootImage load(String path, double factor) {
+        return load(path, -1, -1, factor);
+    }
+    
+    /**
+     * Loads an image scaled to an exact size
+     */
+    public static GreenfootImage load(String path, int width, int height) {
+        return load(path, width, height, 1.0);
+    }
+    
+    /**
+     * Sets whether the disk cache is used at all
+     */
+    public static void setEnabled(boolean use) {
+        enabled = use;
+    }
+    
+    /**
+     * Gets the number of loads served from the disk cache
+     */
+    public static int getHits() {
+        return hits.get();
+    }
+    
+    /**
+     * Gets the number of loads that had to decode the source image
+     */
+    public static int getMisses() {
+        return misses.get();
+    }
+    
+    private static GreenfootImage load(String path, int width, int height, double factor) {
+        File source = findSource(path);
+        if (!enabled || source == null) {
+            return decode(path, width, height, factor);
+        }
+        String size = width > 0 ? width + "x" + height : "x" + factor;
+        String key = getSourceKey(source) + "@" + size;
+        File entry = new File(CACHE_DIRECTORY, getEntryName(path, size, key));
+        
+        GreenfootImage image = read(entry, source, key);
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+        misses.incrementAndGet();
+        image = decode(path, width, height, factor);
+        write(entry, source, key, image);
+        return image;
+    }
+    
+    private static GreenfootImage decode(String path, int width, int height, double factor) {
+        GreenfootImage image = new GreenfootImage(path);
+        if (width > 0) {
+            image.scale(width, height);
+        } else if (factor != 1.0) {
+            image.scale((int)(image.getWidth() * factor), (int)(image.getHeight() * factor));
+        }
+        return image;
+    }
+    
+    private static GreenfootImage read(File entry, File source, String key) {
+        if (!entry.exists()) {
+            return null;
+        }
+        try {
+            FileInputStream file = new FileInputStream(entry);
+            try {
+                FileChannel channel = file.getChannel();
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length);
+                if (!readFully(channel, header)) {
+                    return null;
+                }
+                header.flip();
+                if (header.getInt() != MAGIC || header.getInt() != VERSION ||
+                    header.getLong() != source.length() || header.getLong() != source.lastModified() ||
+                    header.getInt() != keyBytes.length) {
+                    return null; // Stale, rebuilt by the caller
+                }
+                byte[] storedKey = new byte[keyBytes.length];
+                header.get(storedKey);
+                if (!Arrays.equals(storedKey, keyBytes)) {
+                    return null; // Another source with the same entry name
+                }
+                int width = header.getInt();
+                int height = header.getInt();
+                int pixelType = header.getInt();
+                
+                GreenfootImage image = new GreenfootImage(width, height);
+                BufferedImage awt = image.getAwtImage();
+                if (pixelType != awt.getType() || !isFlatIntRaster(awt)) {
+                    return null; // Display format changed, rebuilt by the caller
+                }
+                int[] data = ((DataBufferInt) awt.getRaster().getDataBuffer()).getData();
+                // Raw pixels in the display layout, copied straight into the raster
+                ByteBuffer pixels = ByteBuffer.allocate(data.length * 4);
+                if (!readFully(channel, pixels)) {
+                    return null;
+                }
+                pixels.flip();
+                pixels.asIntBuffer().get(data);
+                return image;
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    private static void write(File entry, File source, String key, GreenfootImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // Store the pixels in the layout read() will find in a fresh image
+        GreenfootImage display = new GreenfootImage(width, height);
+        BufferedImage awt = image.getAwtImage();
+        if (!isFlatIntRaster(display.getAwtImage())) {
+            return; // Display format has no flat pixel array, nothing to cache
+        }
+        if (awt.getType() != display.getAwtImage().getType() || !isFlatIntRaster(awt)) {
+            display.drawImage(image, 0, 0);
+            awt = display.getAwtImage();
+        }
+        // Copied out without taking the image's own pixel array
+        int[] pixels = (int[]) awt.getRaster().getDataElements(0, 0, width, height, null);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        
+        new File(CACHE_DIRECTORY).mkdirs();
+        // Write to a temporary file first so readers never see half an entry
+        File temp = new File(CACHE_DIRECTORY, entry.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            FileOutputStream file = new FileOutputStream(temp);
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + pixels.length * 4);
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putLong(source.length());
+                buffer.putLong(source.lastModified());
+                buffer.putInt(keyBytes.length);
+                buffer.put(keyBytes);
+                buffer.putInt(width);
+                buffer.putInt(height);
+                buffer.putInt(awt.getType());
+                buffer.asIntBuffer().put(pixels);
+                buffer.position(buffer.capacity());
+                buffer.flip();
+                FileChannel channel = file.getChannel();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } finally {
+                file.close();
+            }
+            if (entry.exists() && !entry.delete()) {
+                temp.delete(); // Old entry still in use, replaced on a later launch
+                return;
+            }
+            if (!temp.renameTo(entry)) {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            temp.delete(); // Not cached this time, decoded again next launch
+        }
+    }
+    
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if an image's raster holds exactly one packed int pixel per
+     * element with no padding, so its pixels can be stored and restored as
+     * a flat array
+     */
+    private static boolean isFlatIntRaster(BufferedImage awt) {
+        WritableRaster raster = awt.getRaster();
+        if (awt.getType() == BufferedImage.TYPE_CUSTOM || !(raster.getDataBuffer() instanceof DataBufferInt)
+            || raster.getNumDataElements() != 1 || raster.getParent() != null) {
+            return false;
+        }
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        return buffer.getNumBanks() == 1 && buffer.getOffset() == 0 && buffer.getSize() == awt.getWidth() * awt.getHeight();
+    }
+    
+    /**
+     * Finds the file Greenfoot would load for a path, which may be relative
+     * to the project or to its images directory
+     */
+    private static File findSource(String path) {
+        File file = new File(path);
+        if (file.isFile()) {
+            return file;
+        }
+        file = new File("images", path);
+        if (file.isFile()) {
+            return file;
+        }
+        return null;
+    }
+    
+    /**
+     * Identifies the source file itself, so different spellings of one
+     * path share an entry and different files never do
+     */
+    private static String getSourceKey(File source) {
+        return source.getAbsoluteFile().toPath().normalize().toString().replace('\\', '/');
+    }
+    
+    private static String getEntryName(String path, String size, String key) {
+        String name = path.replace('\\', '/');
+        if (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        // The readable part can collide, the hash of the full key tells them apart
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + size.replace('.', '_')
+            + "-" + Integer.toHexString(key.hashCode()) + ".raw";
+    }
+}
@@ -0,0 +1,90 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * Shared explosion frames for PlaneBomb explosions and Meteor impacts.
+ * Impacts only keep a start tick and index into these frames instead of
+ * building an Animator each. Scaled variants are made once per size
+ * bucket, and at most a few are made per act so a burst of impacts
+ * cannot stall a frame. Impacts that got the unscaled frames because the
+ * budget was spent ask again on later acts until their size is ready.
+ * 
+ * @author Ricardo Lee
+ */
+public class ExplosionFrames
+{
+    public static final String DIRECTORY = "images/explosion";
+    
+    // Explosion sizes are rounded to this many pixels so variants are shared
+    private static final int SIZE_STEP = 10;
+    private static final int MIN_SIZE = 20;
+    private static final int MAX_SIZE = 160;
+    
+    // Scaled variants that may be created in a single act
+    private static final int SCALES_PER_TICK = 1;
+    private static int scalesThisTick = 0;
+    
+    /**
+     * Gets the explosion frames at their original size
+     */
+    public static SpriteSet getFrames() {
+        return SpriteCache.getFrames(DIRECTORY);
+    }
+    
+    /**
+     * Gets the explosion frames scaled to roughly the given diameter.
+     * Falls back to the original frames if this act's scaling budget is spent.
+     */
+    public static SpriteSet getFrames(int size) {
+        int bucket = getBucket(size);
+        if (!SpriteCache.hasScaledFrames(DIRECTORY, bucket, bucket)) {
+            if (scalesThisTick >= SCALES_PER_TICK) {
+                return getFrames();
+            }
+            scalesThisTick++;
+        }
+        return SpriteCache.getScaledFrames(DIRECTORY, bucket, bucket);
+    }
+    
+    /**
+     * Checks if the frames for a diameter are already scaled, so getFrames
+     * will not fall back to the original frames for it
+     */
+    public static boolean isReady(int size) {
+        int bucket = getBucket(size);
+        return SpriteCache.hasScaledFrames(DIRECTORY, bucket, bucket);
+    }
+    
+    /**
+     * Builds every scaled variant ahead of time, ignoring the per act budget
+     */
+    public static void prepareAll() {
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size += SIZE_STEP) {
+            SpriteCache.getScaledFrames(DIRECTORY, size, size);
+        }
+    }
+    
+    /**
+     * Resets the scaling budget, called once per act by the world
+     */
+    public static void beginTick() {
+        scalesThisTick = 0;
+    }
+    
+    /**
+     * Gets the frame to show for an explosion that started at the given
+     * GameClock tick, or -1 once the explosion has finished
+     */
+    public static int getFrameIndex(SpriteSet frames, long startTick, int frameMillis) {
+        long index = (GameClock.getTick() - startTick) / GameClock.millisToTicks(frameMillis);
+        if (index >= frames.getSize()) {
+            return -1;
+        }
+        return (int) index;
+    }
+    
+    private static int getBucket(int size) {
+        int bucket = Math.round((float) size / SIZE_STEP) * SIZE_STEP;
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, bucket));
+    }
+}
+    
\ No newline at end of file
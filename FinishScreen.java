@@ -42,15 +42,18 @@ public class FinishScreen extends World
         addObject(winnerLabel, getWidth()/2, 200);
         
         // Create play again button
-        GreenfootImage playAgain = new GreenfootImage("./images/play.png");
-        playAgain.scale((int)(playAgain.getWidth() * 0.8), (int)(playAgain.getHeight() * 0.8));
-        NextBut playAgainButton = new NextBut(playAgain, new MyWorld());
+        // The next world is only made when its button is clicked
+        GreenfootImage playAgain = DiskImageCache.load("./images/play.png", 0.8);
+        PlayButton playAgainButton = new PlayButton(playAgain);
         addObject(playAgainButton, getWidth()/2, 400);
         
         // Create return to start screen button
-        GreenfootImage returnToStart = new GreenfootImage("./images/back.png");
-        returnToStart.scale((int)(returnToStart.getWidth() * 0.8), (int)(returnToStart.getHeight() * 0.8));
-        NextBut returnButton = new NextBut(returnToStart, new StartScreen());
+        GreenfootImage returnToStart = DiskImageCache.load("./images/back.png", 0.8);
+        LazyButton returnButton = new LazyButton(returnToStart) {
+            protected World createWorld() {
+                return new StartScreen();
+            }
+        };
         addObject(returnButton, getWidth()/2, 500);
         
         // Add some decorative elements
@@ -0,0 +1,36 @@
+/**
+ * The simulation clock. MyWorld advances it once per act, and animations
+ * and effects count ticks instead of reading the wall clock, so the same
+ * battle plays out the same way at any Greenfoot speed.
+ * 
+ * @author Ricardo Lee
+ */
+public class GameClock
+{
+    // Nominal act rate used to turn millisecond durations into ticks
+    public static final int TICKS_PER_SECOND = 60;
+    
+    private static long tick = 0;
+    
+    /**
+     * Advances the clock by one tick, called once per act by MyWorld
+     */
+    public static void tick() {
+        tick++;
+    }
+    
+    /**
+     * Gets the current tick
+     */
+    public static long getTick() {
+        return tick;
+    }
+    
+    /**
+     * Converts a duration in milliseconds to ticks at the nominal act rate,
+     * never less than one tick
+     */
+    public static int millisToTicks(int millis) {
+        return Math.max(1, Math.round(millis * TICKS_PER_SECOND / 1000f));
+    }
+}
@@ -0,0 +1,118 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.HashMap;
+
+/**
+ * Renders text pieces once per font size and colours and hands out the
+ * shared images afterwards. NumericLabel and HudPanel build numbers out
+ * of the digit glyphs here instead of rendering a new string through the
+ * font each time a value changes.
+ * 
+ * @author Ricardo Lee
+ */
+public class GlyphCache
+{
+    public static final String CHARACTERS = "0123456789/-";
+    
+    private static final Color transparent = new Color(0, 0, 0, 0);
+    
+    private static HashMap<String, GreenfootImage[]> glyphs = new HashMap<String, GreenfootImage[]>();
+    private static HashMap<String, GreenfootImage> texts = new HashMap<String, GreenfootImage>();
+    
+    /**
+     * Gets the image of one of the CHARACTERS, rendered like a Label would
+     */
+    public static GreenfootImage getGlyph(char c, int fontSize, Color fillColor, Color lineColor) {
+        String key = getStyleKey(fontSize, fillColor, lineColor);
+        GreenfootImage[] set = glyphs.get(key);
+        if (set == null) {
+            set = new GreenfootImage[CHARACTERS.length()];
+            for (int i = 0; i < set.length; i++) {
+                set[i] = new GreenfootImage(String.valueOf(CHARACTERS.charAt(i)), fontSize, fillColor, transparent, lineColor);
+            }
+            glyphs.put(key, set);
+        }
+        int index = CHARACTERS.indexOf(c);
+        if (index < 0) {
+            throw new IllegalArgumentException("No glyph for " + c);
+        }
+        return set[index];
+    }
+    
+    /**
+     * Gets the image of a fixed piece of text, rendered like a Label would
+     */
+    public static GreenfootImage getText(String text, int fontSize, Color fillColor, Color lineColor) {
+        String key = getStyleKey(fontSize, fillColor, lineColor) + ":" + text;
+        GreenfootImage image = texts.get(key);
+        if (image == null) {
+            image = new GreenfootImage(text, fontSize, fillColor, transparent, lineColor);
+            texts.put(key, image);
+        }
+        return image;
+    }
+    
+    /**
+     * Puts together an image of the prefix followed by the value, and by
+     * "/max" when max is not negative, out of cached pieces
+     */
+    public static GreenfootImage compose(String prefix, int value, int max, int fontSize, Color fillColor, Color lineColor) {
+        char[] digits = new char[24];
+        int length = format(value, digits, 0);
+        if (max >= 0) {
+            digits[length++] = '/';
+            length = format(max, digits, length);
+        }
+        
+        GreenfootImage prefixImage = prefix.isEmpty() ? null : getText(prefix, fontSize, fillColor, lineColor);
+        int width = prefixImage != null ? prefixImage.getWidth() : 0;
+        int height = prefixImage != null ? prefixImage.getHeight() : 0;
+        for (int i = 0; i < length; i++) {
+            GreenfootImage glyph = getGlyph(digits[i], fontSize, fillColor, lineColor);
+            width += glyph.getWidth();
+            height = Math.max(height, glyph.getHeight());
+        }
+        
+        GreenfootImage image = new GreenfootImage(Math.max(1, width), Math.max(1, height));
+        int x = 0;
+        if (prefixImage != null) {
+            image.drawImage(prefixImage, 0, (height - prefixImage.getHeight()) / 2);
+            x = prefixImage.getWidth();
+        }
+        for (int i = 0; i < length; i++) {
+            GreenfootImage glyph = getGlyph(digits[i], fontSize, fillColor, lineColor);
+            image.drawImage(glyph, x, (height - glyph.getHeight()) / 2);
+            x += glyph.getWidth();
+        }
+        return image;
+    }
+    
+    /**
+     * Writes a number into the buffer at the given position and returns
+     * the position after it
+     */
+    private static int format(int number, char[] digits, int start) {
+        long n = number;
+        if (n < 0) {
+            digits[start++] = '-';
+            n = -n;
+        }
+        int end = start;
+        do {
+            digits[end++] = (char)('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        // Digits came out backwards
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            char c = digits[i];
+            digits[i] = digits[j];
+            digits[j] = c;
+        }
+        return end;
+    }
+    
+    private static String getStyleKey(int fontSize, Color fillColor, Color lineColor) {
+        return fontSize + ":" + fillColor.getRed() + "," + fillColor.getGreen() + "," + fillColor.getBlue()
+            + "," + fillColor.getAlpha() + ":" + lineColor.getRed() + "," + lineColor.getGreen()
+            + "," + lineColor.getBlue() + "," + lineColor.getAlpha();
+    }
+}
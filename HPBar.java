@@ -1,17 +1,61 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A health bar that shows the HP of a unit or tower. 
+ * The bar images are drawn once and shared, and a bar only changes its
+ * image when its colour band or fill width changes.
+ * 
+ * In composite mode units get no HPBar actor at all. Instead the bar is
+ * drawn into the unit's own image by composite(), so there is one actor
+ * less per unit to act, collide and paint. Composited copies are kept in
+ * a least recently used cache with a fixed memory budget, so large frames
+ * cannot pile up copies without limit.
  * 
  * @author Ricardo Lee
  */
 public class HPBar extends Actor
 {
+    private static final int WIDTH = 50; // Width of the health bar
+    private static final int HEIGHT = 5; // Height of the health bar
+    
+    // Colour bands, first index into the strip
+    private static final int GREEN = 0;
+    private static final int YELLOW = 1;
+    private static final int RED = 2;
+    
+    // Every possible bar, indexed by [band][fill width]
+    private static final GreenfootImage[][] STRIP = buildStrip();
+    
+    // Distance from the centre of a unit up to the centre of its bar
+    private static final int UNIT_OFFSET = 30;
+    
+    // Fill width steps for composited bars, coarser to keep fewer copies
+    private static final int COMPOSITE_STEP = 5;
+    
+    private static boolean compositeMode = false;
+    
+    // Most memory the composited copies may hold, 4 bytes per pixel
+    public static final long MAX_COMPOSITE_BYTES = 4L * 1024 * 1024;
+    
+    // Composited copies by frame, band and fill step, least recently used first
+    private static LinkedHashMap<CompositeKey, GreenfootImage> composites = new LinkedHashMap<CompositeKey, GreenfootImage>(64, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<CompositeKey, GreenfootImage> eldest) {
+            if (compositeBytes > MAX_COMPOSITE_BYTES && size() > 1) {
+                compositeBytes -= getBytes(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private static long compositeBytes = 0;
+    
     private Actor target;
     private int maxHP;
-    private int width = 50; // Width of the health bar
-    private int height = 5; // Height of the health bar
     private boolean isUnit; // Unit or Tower
+    private int shownBand = -1; // Band and fill width currently shown
+    private int shownWidth = -1;
     
     /**
      * Creates a new health bar with the given max HP.
@@ -34,7 +78,7 @@ public class HPBar extends Actor
     {
         if (target != null && target.getWorld() != null) {
             if (isUnit) {
-                setLocation(target.getX(), target.getY() - 30);
+                setLocation(target.getX(), target.getY() - UNIT_OFFSET);
             } else {
                 Tower tower = (Tower)target;
                 setLocation(tower.getX(), tower.getY() - tower.getImage().getHeight()/2 - 20);
@@ -47,6 +91,59 @@ public class HPBar extends Actor
         }
     }
     
+    /**
+     * Sets whether unit HP bars are drawn into the unit images instead of
+     * being separate actors. Applies to units added after the change.
+     */
+    public static void setCompositeMode(boolean composite)
+    {
+        compositeMode = composite;
+    }
+    
+    /**
+     * Checks if unit HP bars are drawn into the unit images
+     */
+    public static boolean isCompositeMode()
+    {
+        return compositeMode;
+    }
+    
+    /**
+     * Gets a copy of a unit frame with its HP bar drawn above the centre,
+     * where the HPBar actor would be. The frame stays centred, so hitboxes
+     * relative to the centre still apply. Copies are made once per frame,
+     * colour band and fill step, and shared while they stay in the cache.
+     */
+    public static GreenfootImage composite(GreenfootImage frame, int currentHP, int maxHP)
+    {
+        int steps = WIDTH / COMPOSITE_STEP + 1;
+        int band = getBand(currentHP, maxHP);
+        int step = getFillWidth(currentHP, maxHP) / COMPOSITE_STEP;
+        
+        CompositeKey key = new CompositeKey(frame, band * steps + step);
+        GreenfootImage image = composites.get(key);
+        if (image == null) {
+            GreenfootImage bar = STRIP[band][step * COMPOSITE_STEP];
+            // Grow the canvas evenly on both sides so the frame keeps its centre
+            int width = Math.max(frame.getWidth(), bar.getWidth());
+            int height = Math.max(frame.getHeight(), 2 * (UNIT_OFFSET + bar.getHeight()));
+            image = new GreenfootImage(width, height);
+            image.drawImage(frame, (width - frame.getWidth()) / 2, (height - frame.getHeight()) / 2);
+            image.drawImage(bar, (width - bar.getWidth()) / 2, height / 2 - UNIT_OFFSET - bar.getHeight() / 2);
+            compositeBytes += getBytes(image);
+            composites.put(key, image);
+        }
+        return image;
+    }
+    
+    /**
+     * Gets the memory held by composited copies in bytes
+     */
+    public static long getCompositeBytes()
+    {
+        return compositeBytes;
+    }
+    
     private void updateImage()
     {
         int currentHP;
@@ -57,25 +154,90 @@ public class HPBar extends Actor
             currentHP = ((Tower)target).getHP();
         }
         
-        int healthWidth = (int)((double)currentHP / maxHP * width);
-        
-        GreenfootImage image = new GreenfootImage(width + 2, height + 2);
-        
-        image.setColor(Color.BLACK);
-        image.drawRect(0, 0, width + 1, height + 1);
-        
-        image.setColor(Color.WHITE);
-        image.fillRect(1, 1, width, height);
+        int band = getBand(currentHP, maxHP);
+        int healthWidth = getFillWidth(currentHP, maxHP);
         
+        // Only swap images when what the bar shows actually changes
+        if (band != shownBand || healthWidth != shownWidth) {
+            shownBand = band;
+            shownWidth = healthWidth;
+            setImage(STRIP[band][healthWidth]);
+        }
+    }
+    
+    private static int getBand(int currentHP, int maxHP)
+    {
         if (currentHP > maxHP * 0.7) {
-            image.setColor(Color.GREEN);
+            return GREEN;
         } else if (currentHP > maxHP * 0.3) {
-            image.setColor(Color.YELLOW);
-        } else {
-            image.setColor(Color.RED);
+            return YELLOW;
+        }
+        return RED;
+    }
+    
+    private static int getFillWidth(int currentHP, int maxHP)
+    {
+        return Math.max(0, Math.min(WIDTH, (int)((double)currentHP / maxHP * WIDTH)));
+    }
+    
+    private static long getBytes(GreenfootImage image)
+    {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+    
+    /**
+     * Draws every bar once, one per colour band and fill width. The images
+     * are shared by all bars and never changed after this.
+     */
+    private static GreenfootImage[][] buildStrip()
+    {
+        Color[] colors = { Color.GREEN, Color.YELLOW, Color.RED };
+        GreenfootImage[][] strip = new GreenfootImage[colors.length][WIDTH + 1];
+        for (int band = 0; band < colors.length; band++) {
+            for (int healthWidth = 0; healthWidth <= WIDTH; healthWidth++) {
+                GreenfootImage image = new GreenfootImage(WIDTH + 2, HEIGHT + 2);
+                
+                image.setColor(Color.BLACK);
+                image.drawRect(0, 0, WIDTH + 1, HEIGHT + 1);
+                
+                image.setColor(Color.WHITE);
+                image.fillRect(1, 1, WIDTH, HEIGHT);
+                
+                image.setColor(colors[band]);
+                image.fillRect(1, 1, healthWidth, HEIGHT);
+                strip[band][healthWidth] = image;
+            }
+        }
+        return strip;
+    }
+    
+    /**
+     * Identifies a composited copy by the exact frame object it was made
+     * from and its band and fill step
+     */
+    private static class CompositeKey
+    {
+        private GreenfootImage frame;
+        private int index;
+        
+        public CompositeKey(GreenfootImage frame, int index)
+        {
+            this.frame = frame;
+            this.index = index;
         }
         
-        image.fillRect(1, 1, healthWidth, height);
-        setImage(image);
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof CompositeKey)) {
+                return false;
+            }
+            CompositeKey key = (CompositeKey) other;
+            return key.frame == frame && key.index == index;
+        }
+        
+        public int hashCode()
+        {
+            return System.identityHashCode(frame) * 31 + index;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+
+/**
+ * The information panel of one player: title, gold, XP, age, kills and
+ * unit count, all drawn into one image owned by a single actor.
+ * 
+ * MyWorld publishes values every act. A field whose value did not change
+ * costs an int or string compare. A field that did change has only its
+ * own rectangle cleared and redrawn, so the panel's cost follows the
+ * number of changes rather than the number of fields.
+ * 
+ * @author Ricardo Lee
+ */
+public class HudPanel extends Actor
+{
+    public static final int WIDTH = 240;
+    public static final int HEIGHT = 220;
+    
+    // Fields, in panel order
+    private static final int TITLE = 0;
+    private static final int GOLD = 1;
+    private static final int XP = 2;
+    private static final int AGE = 3;
+    private static final int KILLS = 4;
+    private static final int UNITS = 5;
+    
+    // Centre of each field from the top of the panel, and its font size
+    private static final int[] FIELD_Y = { 20, 60, 100, 140, 170, 200 };
+    private static final int[] FONT_SIZES = { 30, 24, 24, 24, 20, 20 };
+    private static final String[] PREFIXES = { "", "Gold: ", "XP: ", "Age: ", "Kills: ", "Units: " };
+    
+    private int[] values = new int[FIELD_Y.length];
+    private int[] maxValues = new int[FIELD_Y.length];
+    private String[] texts = new String[FIELD_Y.length];
+    private int[][] drawnBounds = new int[FIELD_Y.length][]; // {x, y, width, height} last drawn
+    private int redraws = 0;
+    
+    /**
+     * Creates an empty panel with the given title
+     */
+    public HudPanel(String title)
+    {
+        setImage(new GreenfootImage(WIDTH, HEIGHT));
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Integer.MIN_VALUE; // Nothing drawn yet
+            maxValues[i] = -1;
+        }
+        setText(TITLE, title);
+    }
+    
+    /**
+     * Publishes the gold amount
+     */
+    public void setGold(int gold)
+    {
+        setNumber(GOLD, gold, -1);
+    }
+    
+    /**
+     * Publishes the XP amount
+     */
+    public void setXP(int xp)
+    {
+        setNumber(XP, xp, -1);
+    }
+    
+    /**
+     * Publishes the age description
+     */
+    public void setAge(String age)
+    {
+        setText(AGE, age);
+    }
+    
+    /**
+     * Publishes the kill count and the kills needed for the special skill
+     */
+    public void setKills(int kills, int threshold)
+    {
+        setNumber(KILLS, kills, threshold);
+    }
+    
+    /**
+     * Publishes the unit count and the unit limit
+     */
+    public void setUnits(int units, int limit)
+    {
+        setNumber(UNITS, units, limit);
+    }
+    
+    /**
+     * Gets how many field redraws the panel has done
+     */
+    public int getRedraws()
+    {
+        return redraws;
+    }
+    
+    private void setNumber(int field, int value, int max)
+    {
+        if (values[field] == value && maxValues[field] == max) {
+            return;
+        }
+        values[field] = value;
+        maxValues[field] = max;
+        redrawField(field, GlyphCache.compose(PREFIXES[field], value, max, FONT_SIZES[field], Color.WHITE, Color.BLACK));
+    }
+    
+    private void setText(int field, String text)
+    {
+        if (text.equals(texts[field])) {
+            return;
+        }
+        texts[field] = text;
+        Color lineColor = field == TITLE ? Color.YELLOW : Color.BLACK;
+        redrawField(field, GlyphCache.getText(PREFIXES[field] + text, FONT_SIZES[field], Color.WHITE, lineColor));
+    }
+    
+    /**
+     * Clears the rectangle a field was last drawn in and draws its new
+     * image centred on the field's line. The rest of the panel is untouched.
+     */
+    private void redrawField(int field, GreenfootImage fieldImage)
+    {
+        GreenfootImage panel = getImage();
+        int[] old = drawnBounds[field];
+        if (old != null) {
+            Graphics2D g = panel.getAwtImage().createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.setColor(new java.awt.Color(0, 0, 0, 0));
+            g.fillRect(old[0], old[1], old[2], old[3]);
+            g.dispose();
+        }
+        int x = (WIDTH - fieldImage.getWidth()) / 2;
+        int y = FIELD_Y[field] - fieldImage.getHeight() / 2;
+        panel.drawImage(fieldImage, x, y);
+        drawnBounds[field] = new int[] { x, y, fieldImage.getWidth(), fieldImage.getHeight() };
+        redraws++;
+    }
+}
+    
\ No newline at end of file
@@ -0,0 +1,130 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+/**
+ * Converts cached sprites to the pixel layout the display draws fastest,
+ * so Greenfoot does not have to convert them again on every paint.
+ * 
+ * The target is the screen's compatible translucent format, which is
+ * premultiplied ARGB on most accelerated pipelines. Images are redrawn
+ * into a blank GreenfootImage, which Greenfoot creates in that format,
+ * and only the converted copy is kept. Without a display (headless) no
+ * conversion is done.
+ * 
+ * @author Ricardo Lee
+ */
+public class ImageFormat
+{
+    private static ColorModel displayModel;
+    private static boolean displayChecked = false;
+    private static AtomicInteger converted = new AtomicInteger();
+    
+    /**
+     * Compares the draw time of decoder output and converted sprites
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println(benchmark("images/age4/high/walk", 200, 200));
+    }
+    
+    /**
+     * Gets the image in the display's format, converting it if needed.
+     * Returns the same image when it already matches or cannot be improved.
+     */
+    public static GreenfootImage toDisplayFormat(GreenfootImage image) {
+        if (isDisplayFormat(image)) {
+            return image;
+        }
+        GreenfootImage copy = new GreenfootImage(image.getWidth(), image.getHeight());
+        if (!isDisplayFormat(copy)) {
+            return image;
+        }
+        copy.drawImage(image, 0, 0);
+        converted.incrementAndGet();
+        return copy;
+    }
+    
+    /**
+     * Checks if an image already uses the display's format
+     */
+    public static boolean isDisplayFormat(GreenfootImage image) {
+        ColorModel model = getDisplayModel();
+        return model == null || model.equals(image.getAwtImage().getColorModel());
+    }
+    
+    /**
+     * Gets the number of images converted so far
+     */
+    public static int getConvertedCount() {
+        return converted.get();
+    }
+    
+    /**
+     * Measures the average time to draw one frame of the given number of
+     * units, first with the images as the PNG decoder returns them and then
+     * converted to the display format. Returns a short report.
+     */
+    public static String benchmark(String directoryPath, int units, int rounds) throws IOException {
+        File[] files = SpriteAtlas.listFrames(directoryPath);
+        BufferedImage[] decoded = new BufferedImage[files.length];
+        BufferedImage[] prepared = new BufferedImage[files.length];
+        for (int i = 0; i < files.length; i++) {
+            decoded[i] = ImageIO.read(files[i]);
+            prepared[i] = createDisplayImage(decoded[i].getWidth(), decoded[i].getHeight());
+            prepared[i].getGraphics().drawImage(decoded[i], 0, 0, null);
+        }
+        BufferedImage screen = createDisplayImage(1024, 800);
+        
+        double decodedMillis = timeDraws(screen, decoded, units, rounds);
+        double preparedMillis = timeDraws(screen, prepared, units, rounds);
+        return units + " units from " + directoryPath + ": "
+            + String.format("%.3f", decodedMillis) + " ms per frame as decoded (type " + decoded[0].getType() + "), "
+            + String.format("%.3f", preparedMillis) + " ms per frame converted (type " + prepared[0].getType() + ")";
+    }
+    
+    private static double timeDraws(BufferedImage screen, BufferedImage[] frames, int units, int rounds) {
+        Graphics2D g = screen.createGraphics();
+        // Warm up so the JIT and any image caches settle first
+        drawUnits(g, frames, units, rounds / 4 + 1);
+        long start = System.nanoTime();
+        drawUnits(g, frames, units, rounds);
+        long elapsed = System.nanoTime() - start;
+        g.dispose();
+        return elapsed / 1e6 / rounds;
+    }
+    
+    private static void drawUnits(Graphics2D g, BufferedImage[] frames, int units, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            for (int unit = 0; unit < units; unit++) {
+                BufferedImage frame = frames[(round + unit) % frames.length];
+                g.drawImage(frame, (unit * 37) % 900, 500 + (unit % 5) * 20, null);
+            }
+        }
+    }
+    
+    private static BufferedImage createDisplayImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+            .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+    
+    private static synchronized ColorModel getDisplayModel() {
+        if (!displayChecked) {
+            displayChecked = true;
+            if (!GraphicsEnvironment.isHeadless()) {
+                displayModel = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().getColorModel(Transparency.TRANSLUCENT);
+            }
+        }
+        return displayModel;
+    }
+}
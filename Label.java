@@ -14,6 +14,8 @@ import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 public class Label extends Actor
 {
     private String value;
+    private int intValue;
+    private boolean showsInt = false; // Whether value came from setValue(int)
     private int fontSize;
     private Color lineColor = Color.BLACK;
     private Color fillColor = Color.WHITE;
@@ -46,7 +48,11 @@ public class Label extends Actor
      */
     public void setValue(String value)
     {
+        if (!showsInt && value.equals(this.value)) {
+            return; // Unchanged, keep the rendered image
+        }
         this.value = value;
+        showsInt = false;
         updateImage();
     }
     
@@ -57,7 +63,12 @@ public class Label extends Actor
      */
     public void setValue(int value)
     {
+        if (showsInt && value == intValue) {
+            return; // Unchanged, keep the rendered image
+        }
         this.value = Integer.toString(value);
+        intValue = value;
+        showsInt = true;
         updateImage();
     }
     
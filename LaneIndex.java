@@ -0,0 +1,186 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.List;
+
+/**
+ * The units of one side, kept sorted by x so lane queries only look at
+ * the few units near a position instead of every unit in the world.
+ * 
+ * Units are added as they enter the world. MyWorld calls refresh() once
+ * per act, which drops units that left the world and re-sorts by the new
+ * positions. Units only move a few pixels per act, so the order is
+ * nearly sorted already and the insertion sort is close to linear.
+ * Queries widen their window by MAX_DRIFT to allow for units that moved
+ * since the last refresh, then check the live positions.
+ * 
+ * @author Ricardo Lee
+ */
+public class LaneIndex
+{
+    // Furthest a unit is expected to move between two refreshes
+    public static final int MAX_DRIFT = 16;
+    
+    private Unit[] units = new Unit[16];
+    private int[] xs = new int[16]; // x of each unit at the last refresh or add
+    private int size = 0;
+    
+    /**
+     * Adds a unit at its sorted position
+     */
+    public void add(Unit unit) {
+        if (size == units.length) {
+            Unit[] grownUnits = new Unit[size * 2];
+            int[] grownXs = new int[size * 2];
+            System.arraycopy(units, 0, grownUnits, 0, size);
+            System.arraycopy(xs, 0, grownXs, 0, size);
+            units = grownUnits;
+            xs = grownXs;
+        }
+        int x = unit.getX();
+        int index = lowerBound(x);
+        System.arraycopy(units, index, units, index + 1, size - index);
+        System.arraycopy(xs, index, xs, index + 1, size - index);
+        units[index] = unit;
+        xs[index] = x;
+        size++;
+    }
+    
+    /**
+     * Drops units that are no longer in a world, reads the current
+     * positions and restores the x order
+     */
+    public void refresh() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (units[i].getWorld() != null) {
+                units[kept] = units[i];
+                xs[kept] = units[i].getX();
+                kept++;
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            units[i] = null;
+        }
+        size = kept;
+        
+        // Insertion sort, cheap because units barely change order
+        for (int i = 1; i < size; i++) {
+            Unit unit = units[i];
+            int x = xs[i];
+            int j = i - 1;
+            while (j >= 0 && xs[j] > x) {
+                units[j + 1] = units[j];
+                xs[j + 1] = xs[j];
+                j--;
+            }
+            units[j + 1] = unit;
+            xs[j + 1] = x;
+        }
+    }
+    
+    /**
+     * Gets the number of units indexed
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Gets the unit at a position in x order
+     */
+    public Unit get(int index) {
+        return units[index];
+    }
+    
+    /**
+     * Gets the x a unit was indexed at, within MAX_DRIFT of where it is now
+     */
+    public int getIndexedX(int index) {
+        return xs[index];
+    }
+    
+    /**
+     * Finds the closest unit strictly ahead of a unit in the given
+     * direction, closer than maxDistance along x and within maxDy in y
+     */
+    public Unit nearestAhead(Unit from, int direction, int maxDistance, int maxDy) {
+        int x = from.getX();
+        int y = from.getY();
+        Unit closest = null;
+        int closestDistance = maxDistance;
+        if (direction == 1) {
+            for (int i = lowerBound(x - MAX_DRIFT); i < size && xs[i] < x + maxDistance + MAX_DRIFT; i++) {
+                Unit unit = units[i];
+                int distance = unit.getX() - x;
+                if (unit != from && distance > 0 && distance < closestDistance && 
+                    Math.abs(unit.getY() - y) < maxDy && unit.getWorld() != null) {
+                    closest = unit;
+                    closestDistance = distance;
+                }
+            }
+        } else {
+            for (int i = lowerBound(x + MAX_DRIFT + 1) - 1; i >= 0 && xs[i] > x - maxDistance - MAX_DRIFT; i--) {
+                Unit unit = units[i];
+                int distance = x - unit.getX();
+                if (unit != from && distance > 0 && distance < closestDistance && 
+                    Math.abs(unit.getY() - y) < maxDy && unit.getWorld() != null) {
+                    closest = unit;
+                    closestDistance = distance;
+                }
+            }
+        }
+        return closest;
+    }
+    
+    /**
+     * Finds the living unit closest to a point within radius r, measured
+     * between centres like Greenfoot's getObjectsInRange. Units already at
+     * 0 HP and playing their death animation are skipped.
+     */
+    public Unit nearestWithin(int x, int y, int r) {
+        Unit closest = null;
+        long closestDistance = (long) r * r;
+        for (int i = lowerBound(x - r - MAX_DRIFT); i < size && xs[i] <= x + r + MAX_DRIFT; i++) {
+            Unit unit = units[i];
+            long dx = unit.getX() - x;
+            long dy = unit.getY() - y;
+            long distance = dx * dx + dy * dy;
+            if (distance <= closestDistance && unit.getHP() > 0 && unit.getWorld() != null) {
+                closest = unit;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+    
+    /**
+     * Adds every unit whose centre is within radius r of a point to a list
+     */
+    public void collectWithin(int x, int y, int r, List<Unit> found) {
+        long rSquared = (long) r * r;
+        for (int i = lowerBound(x - r - MAX_DRIFT); i < size && xs[i] <= x + r + MAX_DRIFT; i++) {
+            Unit unit = units[i];
+            long dx = unit.getX() - x;
+            long dy = unit.getY() - y;
+            if (dx * dx + dy * dy <= rSquared && unit.getWorld() != null) {
+                found.add(unit);
+            }
+        }
+    }
+    
+    /**
+     * Index of the first unit whose indexed x is at least x
+     */
+    private int lowerBound(int x) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (xs[middle] < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -268,12 +268,18 @@ public class LaserBeam extends SpecialSkill
          */
         public Unit checkUnitHit() {
             try {
-                // Look for units this beam might have hit
-                Actor actor = getOneIntersectingObject(Unit.class);
-                if (actor != null && actor instanceof Unit) {
-                    Unit unit = (Unit) actor;
-                    // Only hit units from the opposite side
-                    if (unit.getSide() != ownerSide) {
+                // Look for units this beam might have hit, through the world grid when there is one
+                List<Unit> units;
+                // The grid only returns units whose hitbox the beam touches
+                boolean touching = getWorld() instanceof MyWorld;
+                if (touching) {
+                    units = ((MyWorld) getWorld()).getSpatialHash().getUnitsHitBy(this);
+                } else {
+                    units = getIntersectingObjects(Unit.class);
+                }
+                for (Unit unit : units) {
+                    // Only hit units from the opposite side whose visible pixels it touches
+                    if (unit.getSide() != ownerSide && (touching || unit.hitboxIntersects(this))) {
                         return unit;
                     }
                 }
@@ -306,8 +312,7 @@ public class LaserBeam extends SpecialSkill
             impactImg.fillOval(5, 5, 10, 10);
             setImage(impactImg);
             impactTimer.mark();
-            GreenfootSound impactSound = new GreenfootSound("laserGun.mp3");
-            impactSound.play();
+            SoundManager.play(SoundManager.LASER_IMPACT);
         }
         
         public boolean update() {
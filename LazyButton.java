@@ -0,0 +1,25 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * button that only creates the world it moves to when it is clicked
+ * 
+ * @author Ricardo Lee
+ */
+public abstract class LazyButton extends Buttons
+{
+    public LazyButton(GreenfootImage e){
+        super(e);
+    }
+    
+    /**
+     * Creates the world to move to
+     */
+    protected abstract World createWorld();
+    
+    public void act()
+    {
+        if (Greenfoot.mouseClicked(this)) {
+            Greenfoot.setWorld(createWorld());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * A progress bar showing how far the AssetPreloader has got
+ * 
+ * @author Ricardo Lee
+ */
+public class LoadingBar extends Actor
+{
+    private int width = 300; // Width of the bar
+    private int height = 12; // Height of the bar
+    private int shownPercent = -1;
+    
+    /**
+     * Creates the bar at the preloader's current progress
+     */
+    public LoadingBar()
+    {
+        updateImage();
+    }
+    
+    /**
+     * Redraws the bar when the progress changes and hides it when done
+     */
+    public void act()
+    {
+        updateImage();
+    }
+    
+    private void updateImage()
+    {
+        int percent = (int)(AssetPreloader.getProgress() * 100);
+        if (percent == shownPercent) {
+            return;
+        }
+        shownPercent = percent;
+        
+        if (AssetPreloader.isDone()) {
+            GreenfootImage transparentImage = new GreenfootImage(1, 1);
+            transparentImage.setTransparency(0);
+            setImage(transparentImage);
+            return;
+        }
+        
+        GreenfootImage text = new GreenfootImage("Loading " + percent + "%", 20, Color.WHITE, new Color(0, 0, 0, 0), Color.BLACK);
+        GreenfootImage image = new GreenfootImage(Math.max(width + 2, text.getWidth()), height + 2 + text.getHeight());
+        image.drawImage(text, (image.getWidth() - text.getWidth()) / 2, 0);
+        
+        int top = text.getHeight();
+        image.setColor(Color.BLACK);
+        image.drawRect(0, top, width + 1, height + 1);
+        image.setColor(Color.WHITE);
+        image.fillRect(1, top + 1, width, height);
+        image.setColor(Color.GREEN);
+        image.fillRect(1, top + 1, width * percent / 100, height);
+        setImage(image);
+    }
+}
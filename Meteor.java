@@ -175,11 +175,10 @@ public class Meteor extends SpecialSkill
                 world.addObject(impact, impact.getX(), impact.getY());
                 
                 // Damage units in the impact area
-                damageUnitsInArea(world, meteor.getX(), meteor.getY(), meteor.getSize() * 2);
+                AreaEffects.blast(world, ownerSide, meteor.getX(), meteor.getY(), meteor.getSize() * 2, meteorDamage);
                 
                 // Play explode sound
-                GreenfootSound explode = new GreenfootSound("./sounds/explosion.mp3");
-                explode.play();
+                SoundManager.play(SoundManager.METEOR_IMPACT);
                 
                 // Mark meteor for removal
                 meteorsToRemove.add(meteor);
@@ -215,27 +214,6 @@ public class Meteor extends SpecialSkill
         impacts.removeAll(impactsToRemove);
     }
     
-    private void damageUnitsInArea(World world, int x, int y, int radius) {
-        // Get all units in the world
-        java.util.List<Unit> units = world.getObjects(Unit.class);
-        
-        // Check each unit to see if it's in the damage radius
-        for (Unit unit : units) {
-            int unitX = unit.getX();
-            int unitY = unit.getY();
-            
-            // Calculate distance between unit and impact center
-            double distance = Math.sqrt(Math.pow(unitX - x, 2) + Math.pow(unitY - y, 2));
-            
-            // Only damage enemy units - units from the opposite side of the owner
-            if (distance <= radius && unit.getSide() != ownerSide) {
-                unit.hitBySpecialSkill(meteorDamage, ownerSide);
-            }
-        }
-        
-        // Removed tower damage section
-    }
-    
     /**
      * Inner class to represent a Meteor object
      */
@@ -355,7 +333,18 @@ public class Meteor extends SpecialSkill
          * Get all intersecting units - safe way for inner class
          */
         public List<Unit> getIntersectingUnits() {
-            return getIntersectingObjects(Unit.class);
+            // The world grid only looks at units in cells this one touches
+            if (getWorld() instanceof MyWorld) {
+                return ((MyWorld) getWorld()).getSpatialHash().getUnitsHitBy(this);
+            }
+            List<Unit> units = getIntersectingObjects(Unit.class);
+            // Only keep units whose visible pixels are actually touched
+            for (Iterator<Unit> iterator = units.iterator(); iterator.hasNext();) {
+                if (!iterator.next().hitboxIntersects(this)) {
+                    iterator.remove();
+                }
+            }
+            return units;
         }
         
         /**
@@ -372,49 +361,58 @@ public class Meteor extends SpecialSkill
     private class MeteorImpact extends Actor {
         private int x, y;
         private int size;
-        private Animator impactAnimator;
+        private SpriteSet impactFrames; // Shared frames, only indexed
+        private boolean framesScaled; // False while the unscaled frames stand in
         private boolean completed = false;
         private int frame = 0;
         private final int MAX_FRAMES = 20;
-        private SimpleTimer impactTimer = new SimpleTimer();
+        private final int FRAME_MILLIS = 80;
+        private final int TIMEOUT_TICKS = GameClock.millisToTicks(3000); // Forced completion, on the game clock
+        private long startTick = GameClock.getTick();
         
         public MeteorImpact(int x, int y, int size) {
             this.x = x;
             this.y = y;
             this.size = size;
-            impactTimer.mark();
             
-            // Use the explosion spritesheet for the impact
+            // Use the shared explosion frames for the impact
             try {
-                impactAnimator = new Animator("images/explosion");
-                impactAnimator.setSpeed(80);
-                
                 // Scale the impact animation based on meteor size
-                int impactScale = size / 20 + 1; // Base impact size on meteor size
+                impactFrames = ExplosionFrames.getFrames(size * 2);
+                framesScaled = ExplosionFrames.isReady(size * 2);
+                setImage(impactFrames.getFrame(0));
             } catch (Exception e) {
-                // If animator can't be created, use a simple effect
+                // If the frames can't be loaded, use a simple effect
                 GreenfootImage img = new GreenfootImage(size * 2, size * 2);
                 img.setColor(new Color(255, 165, 0, 180)); // Orange with transparency
                 img.fillOval(0, 0, size * 2, size * 2);
                 setImage(img);
-                impactAnimator = null;
+                impactFrames = null;
             }
         }
         
         public boolean update() {
-            if (impactAnimator != null) {
-                // Update animation using the explosion spritesheet
-                setImage(impactAnimator.getCurrentFrame());
+            if (impactFrames != null && !framesScaled) {
+                // Scaling budget was spent when this impact started, try again
+                impactFrames = ExplosionFrames.getFrames(size * 2);
+                framesScaled = ExplosionFrames.isReady(size * 2);
+            }
+            if (impactFrames != null) {
+                // Update animation using the explosion frames
+                int index = ExplosionFrames.getFrameIndex(impactFrames, startTick, FRAME_MILLIS);
+                if (index >= 0) {
+                    setImage(impactFrames.getFrame(index));
+                }
                 
                 // Check if animation has completed one cycle OR if too much time has passed
-                if ((impactAnimator.getImageIndex() == impactAnimator.getSize() - 1) || 
-                    impactTimer.millisElapsed() > 3000) { // Force completion after 3 seconds
+                if (index < 0 || index == impactFrames.getSize() - 1 || 
+                    GameClock.getTick() - startTick > TIMEOUT_TICKS) { // Force completion after 3 seconds of game time
                     completed = true;
                 }
             } else {
                 // Simple animation that fades out
                 frame++;
-                if (frame >= MAX_FRAMES || impactTimer.millisElapsed() > 3000) {
+                if (frame >= MAX_FRAMES || GameClock.getTick() - startTick > TIMEOUT_TICKS) {
                     completed = true;
                 } else {
                     // Fade out gradually
@@ -10,6 +10,7 @@ public class Mid extends Unit
     private static final int COST = 70;
     private boolean isAttackingWithAlly = false;
     private Unit targetEnemy = null;
+    private long targetEpoch; // Enemy epoch when targetEnemy was found next to the ally
     private boolean hasDealtDamageThisCycle = false;
     
     /**
@@ -36,7 +37,7 @@ public class Mid extends Unit
                 death();
             } else {
                 awardRewards();
-                getWorld().removeObject(this);
+                removeFromWorld();
             }
             return;
         }
@@ -73,7 +74,7 @@ public class Mid extends Unit
             // Check if there's a friendly unit ahead before moving
             if (friendlyAhead == null) {
                 // Only move if no friendly unit is too close ahead
-                setImage(walkAnimation.getCurrentFrame());
+                showFrame(walkAnimation);
                 setLocation(getX() + speed * direction, getY());
             }
         }
@@ -85,8 +86,8 @@ public class Mid extends Unit
     }
     
     private void standardAttackBehavior() {
-        // Look for enemies to attack
-        Unit enemy = enemyInRange(attackRange);
+        // Look for enemies to attack, keeping the locked target while it is valid
+        Unit enemy = getTarget(attackRange);
         if (enemy != null) {
             attacking = true;
             moving = false;
@@ -106,20 +107,36 @@ public class Mid extends Unit
     }
     
     private Unit findEnemyTarget(Unit friendlyUnit) {
+        // Keep supporting against the same enemy while it stays next to the ally
+        if (isLockValid(targetEnemy, targetEpoch, friendlyUnit.getX(), friendlyUnit.getY(), attackRange)
+            && isLockValid(targetEnemy, targetEpoch, getX(), getY(), attackRange * 2)) {
+            return targetEnemy;
+        }
+        
+        if (getWorld() instanceof MyWorld) {
+            // The enemy closest to the friendly unit is likely its target
+            LaneIndex enemies = ((MyWorld) getWorld()).getLane(getSide() == 1 ? 2 : 1);
+            Unit enemy = enemies.nearestWithin(friendlyUnit.getX(), friendlyUnit.getY(), attackRange);
+            targetEpoch = getEnemyEpoch();
+            if (enemy != null && isLockValid(enemy, targetEpoch, getX(), getY(), attackRange * 2)) {
+                return enemy;
+            }
+            return null;
+        }
+        
         // Get all enemy units in the area
         java.util.List<Unit> enemies = getObjectsInRange(attackRange * 2, Unit.class);
+        long rangeSquared = (long) attackRange * attackRange;
         
         for (Unit enemy : enemies) {
             // Only consider enemy units (from opposite side)
             if (enemy.getSide() != this.getSide()) {
                 // Check if the friendly unit is in range to attack this enemy
-                double distance = Math.sqrt(
-                    Math.pow(friendlyUnit.getX() - enemy.getX(), 2) + 
-                    Math.pow(friendlyUnit.getY() - enemy.getY(), 2)
-                );
+                long dx = friendlyUnit.getX() - enemy.getX();
+                long dy = friendlyUnit.getY() - enemy.getY();
                 
                 // If enemy is in attack range of the friendly unit, it's likely the target
-                if (distance <= attackRange) {
+                if (dx * dx + dy * dy <= rangeSquared) {
                     return enemy;
                 }
             }
@@ -130,7 +147,7 @@ public class Mid extends Unit
     
     private void performAttackWithAlly() {
         // Get the current attack frame
-        setImage(attackAnimation.getCurrentFrame());
+        showFrame(attackAnimation);
         
         // If attack animation is at the last frame (one complete cycle)
         if (attackAnimation.getImageIndex() == attackAnimation.getSize() - 1) {
@@ -149,7 +166,7 @@ public class Mid extends Unit
                 hasDealtDamageThisCycle = true; // Mark that we've dealt damage in this cycle
             } else {
                 // If target is gone, look for a new one
-                Unit newTarget = enemyInRange(attackRange);
+                Unit newTarget = getTarget(attackRange);
                 if (newTarget != null) {
                     targetEnemy = newTarget;
                     newTarget.attack(attackDamage);
@@ -0,0 +1,71 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * Owns the one background music track shared by every world. There is a
+ * single GreenfootSound for it, and the worlds only switch it between
+ * playing, paused and stopped as the game moves between states, instead
+ * of each MyWorld creating its own copy.
+ * 
+ * Greenfoot opens and decodes an MP3 only when it first plays, and the
+ * track is too long to keep decoded in memory like the effects, so the
+ * first play still waits on opening the file.
+ * 
+ * @author Ricardo Lee
+ */
+public class MusicManager
+{
+    public static final String TRACK = "./sounds/background.mp3";
+    public static final int VOLUME = 70;
+    
+    private static GreenfootSound music;
+    private static boolean playing = false;
+    
+    /**
+     * Creates the shared sound for the track if it does not exist yet. This
+     * does not open or buffer the file. Safe to call from a background thread.
+     */
+    public static synchronized void create() {
+        if (music == null) {
+            music = new GreenfootSound(TRACK);
+            music.setVolume(VOLUME);
+        }
+    }
+    
+    /**
+     * Starts or resumes the track in a loop
+     */
+    public static synchronized void play() {
+        create();
+        if (!playing) {
+            music.playLoop();
+            playing = true;
+        }
+    }
+    
+    /**
+     * Pauses the track, keeping its position for resume
+     */
+    public static synchronized void pause() {
+        if (music != null && playing) {
+            music.pause();
+            playing = false;
+        }
+    }
+    
+    /**
+     * Stops the track, the next play starts it from the beginning
+     */
+    public static synchronized void stop() {
+        if (music != null) {
+            music.stop();
+        }
+        playing = false;
+    }
+    
+    /**
+     * Checks if the track is meant to be playing
+     */
+    public static synchronized boolean isPlaying() {
+        return playing;
+    }
+}
@@ -36,6 +36,9 @@ public class MyWorld extends World
     private static final int AGE_4_XP_THRESHOLD = 2000;
     private int unitCountThreshold = 25;
     
+    // Loads the next age's sprites in the background as XP gets close
+    private AgePrefetcher agePrefetcher = new AgePrefetcher();
+    
     // Add kill counters and trigger threshold
     private int killCount1 = 0; // Kill counter for side 1
     private int killCount2 = 0; // Kill counter for side 2
@@ -63,32 +66,38 @@ public class MyWorld extends World
     private int skillTimer2 = 0;
     private int skillDelay = 500; // Longer delay than unit spawning
     
+    // Draw unit HP bars into the unit images instead of using bar actors
+    private static final boolean COMPOSITE_HP_BARS = false;
+    
     // Display labels
-    private Label goldLabel1;
-    private Label goldLabel2;
-    private Label xpLabel1;
-    private Label xpLabel2;
-    private Label ageLabel1;
-    private Label ageLabel2;
-    private Label killLabel1;
-    private Label killLabel2;
+    private HudPanel hud1; // Title, gold, XP, age, kill and unit displays
+    private HudPanel hud2;
     private Label skillLabel1 = null;
     private Label skillLabel2 = null;
-    private Label unitCountLabel1; // Added label to display unit count
-    private Label unitCountLabel2; // Added label to display unit count
 
     // Tower references
     private Tower tower1;
     private Tower tower2;
     
+    // Every unit in the battle, with counts per side, tier and age
+    private UnitRegistry units = new UnitRegistry();
+    
+    // Units of each side sorted by x, for lane queries
+    private LaneIndex lane1 = new LaneIndex();
+    private LaneIndex lane2 = new LaneIndex();
+    
+    // Grid of unit positions for projectile hit tests
+    private SpatialHash spatialHash;
+    
+    // Splash damage from skills, applied in one batch at the end of each act
+    private AreaEffects areaEffects = new AreaEffects(lane1, lane2);
+    
     // Tower HP based on age
     private static final int TOWER_BASE_HP = 1000;
     
     // Game state
     private boolean gameEnded = false;
     
-    // Sound
-    private GreenfootSound backgroundMusic;
     private boolean first;
     
     /**
@@ -98,9 +107,16 @@ public class MyWorld extends World
     public MyWorld() {
         // Create a new world with 1024x800 cells with a cell size of 1x1 pixels.
         super(1024, 800, 1);
+        spatialHash = new SpatialHash(getWidth(), getHeight());
+        HPBar.setCompositeMode(COMPOSITE_HP_BARS);
         
-        // Set background image
-        setBackground("images/background.png");
+        // Every other actor shares Actor's place in the act order, so the
+        // area effects act last and apply the blasts queued during the act
+        setActOrder(Actor.class, AreaEffects.class);
+        addObject(areaEffects, 0, 0);
+        
+        // Set background image, decoded pixels come from the disk cache after the first launch
+        setBackground(DiskImageCache.load("images/background.png"));
         
         // Initialize gold and XP from Settings with higher defaults
         gold1 = Settings.getGold1() > 0 ? Settings.getGold1() : 200;
@@ -108,6 +124,11 @@ public class MyWorld extends World
         xp1 = Settings.getXp1();
         xp2 = Settings.getXp2();
         
+        // A new game starts everyone in the Stone Age again, so make sure its
+        // sprites are cached even if a previous game let them be evicted
+        SpriteCache.setMinActiveAge(1);
+        AssetPreloader.prefetchAge(1);
+        
         // Initialize kill thresholds (random between 5-10)
         resetKillThreshold1();
         resetKillThreshold2();
@@ -123,10 +144,6 @@ public class MyWorld extends World
         
         // Initial spawn
         spawnInitialUnits();
-        
-        // Initialize and play background music
-        backgroundMusic = new GreenfootSound("./sounds/background.mp3");
-        backgroundMusic.setVolume(70); // Set volume to 70%
     }
     
     /**
@@ -148,16 +165,13 @@ public class MyWorld extends World
         panel2.drawRect(0, 0, 199, 119);
         getBackground().drawImage(panel2, getWidth() - 250, 20);
         
-        // Add player titles
-        Label player1Title = new Label("Player 1", 30);
-        player1Title.setLineColor(Color.YELLOW);
-        addObject(player1Title, 150, 30);
-        
-        Label player2Title = new Label("Player 2", 30);
-        player2Title.setLineColor(Color.YELLOW);
-        addObject(player2Title, getWidth() - 150, 30);
+        // One panel actor per player holds the title and every display
+        hud1 = new HudPanel("Player 1");
+        hud2 = new HudPanel("Player 2");
+        addObject(hud1, 150, 10 + HudPanel.HEIGHT / 2);
+        addObject(hud2, getWidth() - 150, 10 + HudPanel.HEIGHT / 2);
         
-        // Create gold display labels with icons
+        // Create gold display with icons
         try {
             GreenfootImage goldIcon = new GreenfootImage("gold.png");
             goldIcon.scale(30, 30);
@@ -167,12 +181,10 @@ public class MyWorld extends World
             // If gold icon isn't available, just leave it out
         }
         
-        goldLabel1 = new Label("Gold: " + gold1, 24);
-        goldLabel2 = new Label("Gold: " + gold2, 24);
-        addObject(goldLabel1, 150, 70);
-        addObject(goldLabel2, getWidth() - 150, 70);
+        hud1.setGold(gold1);
+        hud2.setGold(gold2);
         
-        // Create XP display labels
+        // Create XP display with icons
         try {
             GreenfootImage xpIcon = new GreenfootImage("xp.png");
             xpIcon.scale(30, 30);
@@ -182,28 +194,16 @@ public class MyWorld extends World
             // If xp icon isn't available, just leave it out
         }
         
-        xpLabel1 = new Label("XP: " + xp1, 24);
-        xpLabel2 = new Label("XP: " + xp2, 24);
-        addObject(xpLabel1, 150, 110);
-        addObject(xpLabel2, getWidth() - 150, 110);
-        
-        // Create Age display labels
-        ageLabel1 = new Label("Age: " + getAgeDescription(1), 24);
-        ageLabel2 = new Label("Age: " + getAgeDescription(2), 24);
-        addObject(ageLabel1, 150, 150);
-        addObject(ageLabel2, getWidth() - 150, 150);
-        
-        // Add kill counter displays
-        killLabel1 = new Label("Kills: 0/" + killThreshold1, 20);
-        killLabel2 = new Label("Kills: 0/" + killThreshold2, 20);
-        addObject(killLabel1, 150, 180);
-        addObject(killLabel2, getWidth() - 150, 180);
+        hud1.setXP(xp1);
+        hud2.setXP(xp2);
         
-        // Add unit counter displays
-        unitCountLabel1 = new Label("Units: 0/" + MAX_UNITS_PER_SIDE, 20);
-        unitCountLabel2 = new Label("Units: 0/" + MAX_UNITS_PER_SIDE, 20);
-        addObject(unitCountLabel1, 150, 210);
-        addObject(unitCountLabel2, getWidth() - 150, 210);
+        // Age, kill counter and unit counter displays
+        hud1.setAge(getAgeDescription(1));
+        hud2.setAge(getAgeDescription(2));
+        hud1.setKills(0, killThreshold1);
+        hud2.setKills(0, killThreshold2);
+        hud1.setUnits(0, MAX_UNITS_PER_SIDE);
+        hud2.setUnits(0, MAX_UNITS_PER_SIDE);
     }
     
     /**
@@ -247,39 +247,67 @@ public class MyWorld extends World
         addObject(laserBeam, -100, -100);
     }
     
+    /**
+     * Resumes the music when the scenario is run again mid battle
+     */
+    public void started() {
+        if (first && !gameEnded) {
+            MusicManager.play();
+        }
+    }
+    
+    /**
+     * Pauses the music and cuts off any effects while the scenario is paused
+     */
+    public void stopped() {
+        MusicManager.pause();
+        SoundManager.stopAll();
+    }
+    
     /**
      * The main game loop. Updates displays, checks age advancement, 
      * handles unit spawning based on timers,
      * generates gold over time, and checks skill message status.
      */
     public void act() {
+        // Advance the simulation clock that animations run on
+        GameClock.tick();
+        
+        // Bring the lane indexes up to date with last act's moves and deaths
+        lane1.refresh();
+        lane2.refresh();
+        spatialHash.rebuild(units);
+        
         // Skip if game has ended
         if (first == false) {
             first = true;
-            backgroundMusic.playLoop(); // Play in a continuous loop
+            MusicManager.play(); // Shared track, plays in a continuous loop
         }
         
         if (gameEnded) {
-            backgroundMusic.stop();
+            MusicManager.stop();
         }
         
-        // Update gold display
-        goldLabel1.setValue("Gold: " + gold1);
-        goldLabel2.setValue("Gold: " + gold2);
+        // New act, new budget for scaling explosion frames
+        ExplosionFrames.beginTick();
+        
+        // Publish gold, the panels only redraw fields whose value changed
+        hud1.setGold(gold1);
+        hud2.setGold(gold2);
         
-        // Update XP display
-        xpLabel1.setValue("XP: " + xp1);
-        xpLabel2.setValue("XP: " + xp2);
+        // Publish XP
+        hud1.setXP(xp1);
+        hud2.setXP(xp2);
         
-        // Update kill counter display
-        killLabel1.setValue("Kills: " + killCount1 + "/" + killThreshold1);
-        killLabel2.setValue("Kills: " + killCount2 + "/" + killThreshold2);
+        // Publish kill counters
+        hud1.setKills(killCount1, killThreshold1);
+        hud2.setKills(killCount2, killThreshold2);
         
         // Update unit counter display
-        int unitCount1 = countUnits(1);
-        int unitCount2 = countUnits(2);
-        unitCountLabel1.setValue("Units: " + unitCount1 + "/" + MAX_UNITS_PER_SIDE);
-        unitCountLabel2.setValue("Units: " + unitCount2 + "/" + MAX_UNITS_PER_SIDE);
+        int unitCount1 = units.count(1);
+        int unitCount2 = units.count(2);
+        hud1.setUnits(unitCount1, MAX_UNITS_PER_SIDE);
+        hud2.setUnits(unitCount2, MAX_UNITS_PER_SIDE);
         
         // Check if any side can advance to the next age
         checkAgeAdvancement();
@@ -343,16 +371,6 @@ public class MyWorld extends World
         return 0; // Don't use any skill this time
     }
     
-    private int countUnits(int side) {
-        int count = 0;
-        for (Unit unit : getObjects(Unit.class)) {
-            if ((side == 1 && unit.getDirection() == 1) || 
-                (side == 2 && unit.getDirection() == -1)) {
-                count++;
-            }
-        }
-        return count;
-    }
 
     private void configureMeteor(int side, int targetX, int targetY) {
         meteor.setMeteorCount(8);
@@ -458,6 +476,10 @@ public class MyWorld extends World
      * Check if any side can advance to the next age
      */
     private void checkAgeAdvancement() {
+        // Start loading an upcoming age before either side reaches it
+        agePrefetcher.check(age1, xp1, getNextAgeThreshold(age1));
+        agePrefetcher.check(age2, xp2, getNextAgeThreshold(age2));
+        
         // Side 1 age advancement
         if (age1 < 4) {
             int nextAgeThreshold = getNextAgeThreshold(age1);
@@ -478,13 +500,15 @@ public class MyWorld extends World
     private void advanceAge(int side) {
         if (side == 1) {
             age1 = Math.min(age1 + 1, 4);
-            ageLabel1.setValue("Age: " + getAgeDescription(1));
+            hud1.setAge(getAgeDescription(1));
             tower1.updateAge(age1);
         } else {
             age2 = Math.min(age2 + 1, 4);
-            ageLabel2.setValue("Age: " + getAgeDescription(2));
+            hud2.setAge(getAgeDescription(2));
             tower2.updateAge(age2);
         }
+        // Ages both sides have left behind may be evicted from the sprite cache
+        SpriteCache.setMinActiveAge(Math.min(age1, age2));
     }
     
     private String getAgeDescription(int side) {
@@ -532,7 +556,7 @@ public class MyWorld extends World
             killCount1++;
             
             // Update kill counter display
-            killLabel1.setValue("Kills: " + killCount1 + "/" + killThreshold1);
+            hud1.setKills(killCount1, killThreshold1);
             
             // Check if kill threshold reached
             if (killCount1 >= killThreshold1) {
@@ -558,7 +582,7 @@ public class MyWorld extends World
             killCount2++;
             
             // Update kill counter display
-            killLabel2.setValue("Kills: " + killCount2 + "/" + killThreshold2);
+            hud2.setKills(killCount2, killThreshold2);
             
             // Check if kill threshold reached
             if (killCount2 >= killThreshold2) {
@@ -610,6 +634,60 @@ public class MyWorld extends World
         useSkill(side, age);
     }
     
+    /**
+     * Adds a unit that entered the world to the registry, its lane index
+     * and the grid. Called from Unit.addedToWorld.
+     */
+    public void addUnit(Unit unit) {
+        units.add(unit);
+        getLane(unit.getSide()).add(unit);
+        spatialHash.add(unit);
+    }
+    
+    /**
+     * Removes a unit from the world and the registry. The lane index and
+     * grid drop it on their next refresh.
+     */
+    public void removeUnit(Unit unit) {
+        units.remove(unit);
+        removeObject(unit);
+    }
+    
+    /**
+     * Gets the registry of all units in the battle
+     */
+    public UnitRegistry getUnits() {
+        return units;
+    }
+    
+    /**
+     * Gets the lane index holding the units of a side
+     */
+    public LaneIndex getLane(int side) {
+        return side == 1 ? lane1 : lane2;
+    }
+    
+    /**
+     * Gets the grid projectiles use to find the units they hit
+     */
+    public SpatialHash getSpatialHash() {
+        return spatialHash;
+    }
+    
+    /**
+     * Gets the area of effect service skills use for splash damage
+     */
+    public AreaEffects getAreaEffects() {
+        return areaEffects;
+    }
+    
+    /**
+     * Gets the tower of a side
+     */
+    public Tower getTower(int side) {
+        return side == 1 ? tower1 : tower2;
+    }
+    
     /**
      * Returns the current age of the specified player side (1 or 2).
      */
@@ -627,7 +705,7 @@ public class MyWorld extends World
     }
     
     private void side1() {
-        int unitCount = countUnits(1);
+        int unitCount = units.count(1);
         
         if (unitCount >= MAX_UNITS_PER_SIDE) {
             return;
@@ -650,7 +728,7 @@ public class MyWorld extends World
     }
     
     private void side2() {
-        int unitCount = countUnits(2);
+        int unitCount = units.count(2);
         
         if (unitCount >= MAX_UNITS_PER_SIDE) {
             return; 
@@ -701,7 +779,7 @@ public class MyWorld extends World
     
     private void spawnUnitBySide(int side, int unitType) {
         // First check if we're below the unit limit
-        int unitCount = countUnits(side);
+        int unitCount = units.count(side);
         if (unitCount >= MAX_UNITS_PER_SIDE) {
             return; // Don't spawn if at or above the limit
         }
@@ -744,7 +822,7 @@ public class MyWorld extends World
     
     private void spawnUnit(int side, int direction) {
         // First check if we're below the unit limit
-        int unitCount = countUnits(side);
+        int unitCount = units.count(side);
         if (unitCount >= MAX_UNITS_PER_SIDE) {
             return; // Don't spawn if at or above the limit
         }
@@ -769,10 +847,12 @@ public class MyWorld extends World
         
         gameEnded = true;
         
-        // Stop the background music
-        if (backgroundMusic != null) {
-            backgroundMusic.stop();
-        }
+        // Stop the background music and any effects still playing
+        MusicManager.stop();
+        SoundManager.stopAll();
+        
+        // Splash damage still queued no longer matters
+        areaEffects.clear();
         
         // Determine the winning side
         int winningSide = (losingSide == 1) ? 2 : 1;
@@ -0,0 +1,83 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * A label for a fixed prefix followed by a number, or by a number and a
+ * maximum as in "Kills: 3/10". The image is put together from cached
+ * glyphs, and only when one of the numbers actually changes, so setting
+ * the same values every act costs a couple of int compares.
+ * 
+ * @author Ricardo Lee
+ */
+public class NumericLabel extends Actor
+{
+    private String prefix;
+    private int fontSize;
+    private Color lineColor = Color.BLACK;
+    private Color fillColor = Color.WHITE;
+    private int value;
+    private int max; // Negative when there is no maximum shown
+    
+    /**
+     * Creates a label showing the prefix and the value
+     */
+    public NumericLabel(String prefix, int value, int fontSize)
+    {
+        this(prefix, value, -1, fontSize);
+    }
+    
+    /**
+     * Creates a label showing the prefix, the value and the maximum
+     */
+    public NumericLabel(String prefix, int value, int max, int fontSize)
+    {
+        this.prefix = prefix;
+        this.value = value;
+        this.max = max;
+        this.fontSize = fontSize;
+        updateImage();
+    }
+    
+    /**
+     * Sets the value shown, redrawing only if it changed
+     */
+    public void setValue(int value)
+    {
+        setValue(value, max);
+    }
+    
+    /**
+     * Sets the value and maximum shown, redrawing only if either changed
+     */
+    public void setValue(int value, int max)
+    {
+        if (value == this.value && max == this.max) {
+            return;
+        }
+        this.value = value;
+        this.max = max;
+        updateImage();
+    }
+    
+    /**
+     * Sets the line color of the text
+     */
+    public void setLineColor(Color lineColor)
+    {
+        this.lineColor = lineColor;
+        updateImage();
+    }
+    
+    /**
+     * Sets the fill color of the text
+     */
+    public void setFillColor(Color fillColor)
+    {
+        this.fillColor = fillColor;
+        updateImage();
+    }
+    
+    private void updateImage()
+    {
+        setImage(GlyphCache.compose(prefix, value, max, fontSize, fillColor, lineColor));
+    }
+}
@@ -0,0 +1,89 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decodes images on a fork-join pool with one worker per core. Callers
+ * submit everything they need up front and join each task right before
+ * the image is first used, so independent decodes overlap instead of
+ * running one after another.
+ * 
+ * @author Ricardo Lee
+ */
+public class ParallelDecoder
+{
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    
+    /**
+     * Starts decoding an image at its original size
+     */
+    public static ForkJoinTask<GreenfootImage> submit(String path) {
+        return pool.submit(new DecodeTask(path, -1, -1, 1.0));
+    }
+    
+    /**
+     * Starts decoding an image scaled by a factor
+     */
+    public static ForkJoinTask<GreenfootImage> submit(String path, double factor) {
+        return pool.submit(new DecodeTask(path, -1, -1, factor));
+    }
+    
+    /**
+     * Starts decoding an image scaled to an exact size
+     */
+    public static ForkJoinTask<GreenfootImage> submit(String path, int width, int height) {
+        return pool.submit(new DecodeTask(path, width, height, 1.0));
+    }
+    
+    /**
+     * Decodes all the images at their original size in parallel and
+     * returns them in the same order once every one is done
+     */
+    public static GreenfootImage[] decodeAll(String[] paths) {
+        List<ForkJoinTask<GreenfootImage>> tasks = new ArrayList<ForkJoinTask<GreenfootImage>>(paths.length);
+        for (int i = 0; i < paths.length; i++) {
+            tasks.add(submit(paths[i]));
+        }
+        GreenfootImage[] images = new GreenfootImage[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            images[i] = tasks.get(i).join();
+        }
+        return images;
+    }
+    
+    /**
+     * Gets the number of worker threads decoding images
+     */
+    public static int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    /**
+     * One image decode, going through the disk cache like a serial load would
+     */
+    private static class DecodeTask extends RecursiveTask<GreenfootImage> {
+        private static final long serialVersionUID = 1L;
+        
+        private String path;
+        private int width;
+        private int height;
+        private double factor;
+        
+        public DecodeTask(String path, int width, int height, double factor) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.factor = factor;
+        }
+        
+        protected GreenfootImage compute() {
+            if (width > 0) {
+                return DiskImageCache.load(path, width, height);
+            }
+            return DiskImageCache.load(path, factor);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decodes short sound effects to PCM once and keeps the samples in memory,
+ * so voices can be opened straight from them without decoding the file
+ * again during a battle.
+ * 
+ * Decoding goes through javax.sound, which always reads WAV, so the battle
+ * effects are shipped as WAV. Files it cannot decode, such as MP3 without
+ * an MP3 provider on the classpath, make get return null and the caller
+ * plays the file normally.
+ * 
+ * @author Ricardo Lee
+ */
+public class PcmCache
+{
+    // Longest effect kept in memory, longer sounds are streamed as before
+    public static final int MAX_BYTES = 4 * 1024 * 1024;
+    
+    private static Map<String, PcmSound> sounds = new ConcurrentHashMap<String, PcmSound>();
+    private static Map<String, Boolean> unsupported = new ConcurrentHashMap<String, Boolean>();
+    
+    /**
+     * Decodes the effects SoundManager uses and prints their decoded sizes
+     */
+    public static void main(String[] args) {
+        System.out.println(report(SoundManager.getEffectFiles()));
+    }
+    
+    /**
+     * Gets the decoded samples of a sound file, decoding it on first use.
+     * Returns null if the file cannot be decoded or is too long.
+     */
+    public static PcmSound get(String path) {
+        PcmSound sound = sounds.get(path);
+        if (sound != null || unsupported.containsKey(path)) {
+            return sound;
+        }
+        sound = decode(path);
+        if (sound == null) {
+            unsupported.put(path, Boolean.TRUE);
+            return null;
+        }
+        PcmSound existing = sounds.putIfAbsent(path, sound);
+        return existing != null ? existing : sound;
+    }
+    
+    /**
+     * Gets the total size of all decoded samples in bytes
+     */
+    public static long getDecodedBytes() {
+        long total = 0;
+        for (PcmSound sound : sounds.values()) {
+            total += sound.getData().length;
+        }
+        return total;
+    }
+    
+    /**
+     * Decodes the files and describes each one's encoded and decoded size
+     */
+    public static String report(String[] paths) {
+        StringBuilder text = new StringBuilder();
+        for (String path : paths) {
+            PcmSound sound = get(path);
+            text.append(path).append(": ").append(new File(path).length()).append(" bytes encoded, ");
+            if (sound == null) {
+                text.append("not decodable, played from file\n");
+            } else {
+                text.append(sound.getData().length).append(" bytes PCM, ")
+                    .append(sound.getDurationMillis()).append(" ms\n");
+            }
+        }
+        text.append("Total decoded: ").append(getDecodedBytes()).append(" bytes");
+        return text.toString();
+    }
+    
+    private static PcmSound decode(String path) {
+        try {
+            AudioInputStream encoded = AudioSystem.getAudioInputStream(new File(path));
+            AudioFormat source = encoded.getFormat();
+            AudioInputStream pcm = encoded;
+            if (source.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+                // Compressed input, ask the provider for 16 bit signed samples
+                AudioFormat target = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    source.getSampleRate(), 16, source.getChannels(),
+                    source.getChannels() * 2, source.getSampleRate(), false);
+                pcm = AudioSystem.getAudioInputStream(target, encoded);
+            }
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[16 * 1024];
+                int read;
+                while ((read = pcm.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                    if (out.size() > MAX_BYTES) {
+                        return null;
+                    }
+                }
+                return new PcmSound(pcm.getFormat(), out.toByteArray());
+            } finally {
+                pcm.close();
+            }
+        } catch (UnsupportedAudioFileException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null; // No conversion to PCM available
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * The decoded samples of one sound
+     */
+    public static class PcmSound {
+        private AudioFormat format;
+        private byte[] data;
+        
+        public PcmSound(AudioFormat format, byte[] data) {
+            this.format = format;
+            this.data = data;
+        }
+        
+        public AudioFormat getFormat() {
+            return format;
+        }
+        
+        public byte[] getData() {
+            return data;
+        }
+        
+        public int getDurationMillis() {
+            return (int)(1000L * data.length / format.getFrameSize() / (long) format.getFrameRate());
+        }
+    }
+}
+    
\ No newline at end of file
@@ -1,5 +1,6 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -123,8 +124,7 @@ public class PlaneBomb extends SpecialSkill
         bombs.add(bomb);
         world.addObject(bomb, bomb.getX(), bomb.getY());
         // Play Bomb dropping sound
-        GreenfootSound bombDrop = new GreenfootSound("./sounds/bombsFalling.mp3");
-        bombDrop.play();
+        SoundManager.play(SoundManager.BOMB_DROP);
     }
     
     private void updateBombs(World world) {
@@ -152,7 +152,7 @@ public class PlaneBomb extends SpecialSkill
                 world.addObject(explosion, explosion.getX(), explosion.getY());
                 
                 // Damage units in explosion radius
-                damageUnitsInArea(world, bomb.getX(), bomb.getY(), 100);
+                AreaEffects.blast(world, ownerSide, bomb.getX(), bomb.getY(), 100, bombDamage);
                 
                 // Mark bomb for removal
                 bombsToRemove.add(bomb);
@@ -168,7 +168,7 @@ public class PlaneBomb extends SpecialSkill
                 world.addObject(explosion, explosion.getX(), explosion.getY());
                 
                 // Damage units in explosion radius
-                damageUnitsInArea(world, bomb.getX(), bomb.getY(), 100);
+                AreaEffects.blast(world, ownerSide, bomb.getX(), bomb.getY(), 100, bombDamage);
                 
                 // Mark bomb for removal
                 bombsToRemove.add(bomb);
@@ -180,25 +180,6 @@ public class PlaneBomb extends SpecialSkill
         bombs.removeAll(bombsToRemove);
     }
     
-    private void damageUnitsInArea(World world, int x, int y, int radius) {
-        // Get all units in the world
-        java.util.List<Unit> units = world.getObjects(Unit.class);
-        
-        // Check each unit to see if it's in the damage radius
-        for (Unit unit : units) {
-            int unitX = unit.getX();
-            int unitY = unit.getY();
-            
-            // Calculate distance between unit and explosion center
-            double distance = Math.sqrt(Math.pow(unitX - x, 2) + Math.pow(unitY - y, 2));
-            
-            // If unit is within radius and from enemy side, damage it
-            if (distance <= radius && unit.getSide() != ownerSide) {
-                unit.hitBySpecialSkill(bombDamage, ownerSide);
-            }
-        }
-    }
-    
     private void updateExplosions(World world) {
         ArrayList<Explosion> explosionsToRemove = new ArrayList<Explosion>();
         
@@ -261,7 +242,18 @@ public class PlaneBomb extends SpecialSkill
          * Get intersecting units - public method to use instead of protected getOneIntersectingObject
          */
         public List<Unit> getIntersectingUnits() {
-            return getIntersectingObjects(Unit.class);
+            // The world grid only looks at units in cells this one touches
+            if (getWorld() instanceof MyWorld) {
+                return ((MyWorld) getWorld()).getSpatialHash().getUnitsHitBy(this);
+            }
+            List<Unit> units = getIntersectingObjects(Unit.class);
+            // Only keep units whose visible pixels are actually touched
+            for (Iterator<Unit> iterator = units.iterator(); iterator.hasNext();) {
+                if (!iterator.next().hitboxIntersects(this)) {
+                    iterator.remove();
+                }
+            }
+            return units;
         }
     }
     
@@ -270,36 +262,39 @@ public class PlaneBomb extends SpecialSkill
      */
     private class Explosion extends Actor {
         private int x, y;
-        private Animator explosionAnimator;
+        private SpriteSet explosionFrames; // Shared frames, only indexed
         private boolean completed = false;
         private int frame = 0;
         private final int MAX_FRAMES = 20;
-        private SimpleTimer explosionTimer = new SimpleTimer();
+        private final int FRAME_MILLIS = 100;
+        private final int TIMEOUT_TICKS = GameClock.millisToTicks(2000); // Forced completion, on the game clock
+        private long startTick = GameClock.getTick();
         
         public Explosion(int x, int y) {
             this.x = x;
             this.y = y;
-            explosionAnimator = new Animator("images/explosion");
-            explosionAnimator.setSpeed(100);
-            explosionTimer.mark();
-            GreenfootSound explosionSound = new GreenfootSound("./sounds/explode.mp3");
-            explosionSound.play();
+            explosionFrames = ExplosionFrames.getFrames();
+            setImage(explosionFrames.getFrame(0));
+            SoundManager.play(SoundManager.BOMB_EXPLOSION);
         }
         
         public boolean update() {
-            if (explosionAnimator != null) {
+            if (explosionFrames != null) {
                 // Update animation
-                setImage(explosionAnimator.getCurrentFrame());
+                int index = ExplosionFrames.getFrameIndex(explosionFrames, startTick, FRAME_MILLIS);
+                if (index >= 0) {
+                    setImage(explosionFrames.getFrame(index));
+                }
                 
                 // Check if animation has completed one cycle or if enough time has passed
-                if ((explosionAnimator.getImageIndex() == explosionAnimator.getSize() - 1) || 
-                    explosionTimer.millisElapsed() > 2000) { // Force completion after 2 seconds
+                if (index < 0 || index == explosionFrames.getSize() - 1 || 
+                    GameClock.getTick() - startTick > TIMEOUT_TICKS) { // Force completion after 2 seconds of game time
                     completed = true;
                 }
             } else {
                 // Simple fading animation with a timeout
                 frame++;
-                if (frame >= MAX_FRAMES || explosionTimer.millisElapsed() > 2000) {
+                if (frame >= MAX_FRAMES || GameClock.getTick() - startTick > TIMEOUT_TICKS) {
                     completed = true;
                 } else {
                     // Fade out gradually
@@ -0,0 +1,26 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * button that starts a new game once the AssetPreloader is done
+ * 
+ * @author Ricardo Lee
+ */
+public class PlayButton extends Buttons
+{
+    private boolean clicked = false;
+    
+    public PlayButton(GreenfootImage e){
+        super(e);
+    }
+    
+    public void act()
+    {
+        if (Greenfoot.mouseClicked(this)) {
+            clicked = true;
+        }
+        // A click while loading starts the game as soon as loading finishes
+        if (clicked && AssetPreloader.isDone()) {
+            Greenfoot.setWorld(new MyWorld());
+        }
+    }
+}
@@ -173,8 +173,7 @@ public class RainingArrows extends SpecialSkill
                     world.addObject(impact, impact.getX(), impact.getY());
                     
                     // Play ArrowWoosh sound
-                    GreenfootSound arrowSound = new GreenfootSound("./sounds/ArrowWhoosh.wav");
-                    arrowSound.play();
+                    SoundManager.play(SoundManager.ARROW_HIT);
                     
                     // Mark arrow for removal
                     arrowsToRemove.add(arrow);
@@ -341,11 +340,19 @@ public class RainingArrows extends SpecialSkill
         public Unit checkUnitHit() {
             // Check for any intersecting units
             try {
-                List<Unit> units = getIntersectingObjects(Unit.class);
+                List<Unit> units;
+                // The grid only returns units whose hitbox the arrow touches
+                boolean touching = getWorld() instanceof MyWorld;
+                if (touching) {
+                    units = ((MyWorld) getWorld()).getSpatialHash().getUnitsHitBy(this);
+                } else {
+                    units = getIntersectingObjects(Unit.class);
+                }
                 if (units != null && !units.isEmpty()) {
                     for (Unit unit : units) {
-                        // Only damage units from the opposite side
-                        if (unit.getSide() != ownerSide) {
+                        // Only damage units from the opposite side, and only if the
+                        // arrow touches the unit's visible pixels
+                        if (unit.getSide() != ownerSide && (touching || unit.hitboxIntersects(this))) {
                             return unit;
                         }
                     }
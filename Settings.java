@@ -1,4 +1,5 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.concurrent.ForkJoinTask;
 /**
  * A setting page to change xp and gold values   
  * 
@@ -15,21 +16,21 @@ public class Settings extends World
     
     
     //Label
-    Label g1 = new Label(0,40);
-    Label g2 = new Label(0,40);
-    Label x1 = new Label(0,40);
-    Label x2 = new Label(0,40);
+    NumericLabel g1 = new NumericLabel("",0,40);
+    NumericLabel g2 = new NumericLabel("",0,40);
+    NumericLabel x1 = new NumericLabel("",0,40);
+    NumericLabel x2 = new NumericLabel("",0,40);
     Label p1 = new Label("Player 1", 40);
     Label p2 = new Label("Player 2", 40);
     
     //Images
-    GreenfootImage gold = new GreenfootImage("gold.png");
-    GreenfootImage xp = new GreenfootImage("xp.png");
-    GreenfootImage back = new GreenfootImage("back.png");
-    GreenfootImage settin = new GreenfootImage("setting.png");
-    GreenfootImage plus = new GreenfootImage("plus.png");
-    GreenfootImage min = new GreenfootImage("min.png");
-    GreenfootImage bg = new GreenfootImage("settinbg.png");
+    GreenfootImage gold;
+    GreenfootImage xp;
+    GreenfootImage back;
+    GreenfootImage settin;
+    GreenfootImage plus;
+    GreenfootImage min;
+    GreenfootImage bg;
 
 
 
@@ -45,14 +46,21 @@ public class Settings extends World
         
         
         
-        //Image resize
-        back.scale((int)(back.getWidth() * 0.8), (int)(back.getHeight() * 0.8));
-        gold.scale((int)(gold.getWidth() * 0.2), (int)(gold.getHeight() * 0.2));
-        xp.scale((int)(xp.getWidth() * 0.2), (int)(xp.getHeight() * 0.2));
-        settin.scale((int)(settin.getWidth() * 1), (int)(settin.getHeight() * 1));
-        plus.scale((int)(plus.getWidth() * 0.2), (int)(plus.getHeight() * 0.2));
-        min.scale((int)(min.getWidth() * 0.2), (int)(min.getHeight() * 0.2));
-        bg.scale(1024,800);
+        //Images, decoded and scaled in parallel then joined before use
+        ForkJoinTask<GreenfootImage> goldImage = ParallelDecoder.submit("gold.png", 0.2);
+        ForkJoinTask<GreenfootImage> xpImage = ParallelDecoder.submit("xp.png", 0.2);
+        ForkJoinTask<GreenfootImage> backImage = ParallelDecoder.submit("back.png", 0.8);
+        ForkJoinTask<GreenfootImage> settinImage = ParallelDecoder.submit("setting.png");
+        ForkJoinTask<GreenfootImage> plusImage = ParallelDecoder.submit("plus.png", 0.2);
+        ForkJoinTask<GreenfootImage> minImage = ParallelDecoder.submit("min.png", 0.2);
+        ForkJoinTask<GreenfootImage> bgImage = ParallelDecoder.submit("settinbg.png", 1024, 800);
+        gold = goldImage.join();
+        xp = xpImage.join();
+        back = backImage.join();
+        settin = settinImage.join();
+        plus = plusImage.join();
+        min = minImage.join();
+        bg = bgImage.join();
 
     
         
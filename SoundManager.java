@@ -0,0 +1,335 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * Plays the battle sound effects from small pools of preloaded voices
+ * instead of creating a new GreenfootSound for every hit.
+ * 
+ * Each effect has a fixed number of voices and a priority. At most
+ * MAX_VOICES effects play at once; when the limit is reached, a new effect
+ * can only take over a voice from a lower priority one. The same effect
+ * requested more than once in a tick is played only once.
+ * 
+ * Voices play from samples decoded once by PcmCache when the file can be
+ * decoded, and fall back to a GreenfootSound otherwise.
+ * 
+ * The game thread only queues effect ids. A dedicated audio thread takes
+ * them off the lock-free queue and starts the voices, so a slow sound
+ * start never holds up act().
+ * 
+ * @author Ricardo Lee
+ */
+public class SoundManager
+{
+    // Effect ids
+    public static final int ARROW_HIT = 0;
+    public static final int LASER_IMPACT = 1;
+    public static final int BOMB_DROP = 2;
+    public static final int BOMB_EXPLOSION = 3;
+    public static final int METEOR_IMPACT = 4;
+    public static final int UNIT_DEATH = 5;
+    
+    // Most effects allowed to play at the same time
+    public static final int MAX_VOICES = 8;
+    
+    // Most requests waiting for the audio thread before new ones are dropped
+    public static final int MAX_PENDING = 32;
+    
+    private static final int STOP = -1; // Request id for stopAll, never queued
+    
+    private static final String[] FILES = {
+        "./sounds/ArrowWhoosh.wav",
+        "./sounds/laserGun.wav",
+        "./sounds/bombsFalling.wav",
+        "./sounds/explode.wav",
+        "./sounds/explosion.wav",
+        "./sounds/oof.wav"
+    };
+    private static final int[] VOICES = { 4, 3, 2, 3, 3, 4 };
+    private static final int[] PRIORITIES = { 1, 2, 2, 3, 3, 1 };
+    
+    private static Voice[][] voices;
+    private static int[] nextVoice = new int[FILES.length];
+    private static long[] lastQueuedTick = { -1, -1, -1, -1, -1, -1 };
+    
+    private static ConcurrentLinkedQueue<Integer> requests = new ConcurrentLinkedQueue<Integer>();
+    private static AtomicInteger pending = new AtomicInteger();
+    private static volatile Thread audioThread;
+    private static volatile boolean stopRequested = false; // Checked before every poll
+    
+    private static AtomicInteger played = new AtomicInteger();
+    private static AtomicInteger dropped = new AtomicInteger();
+    private static AtomicInteger coalesced = new AtomicInteger();
+    private static AtomicInteger failed = new AtomicInteger();
+    
+    /**
+     * Creates every voice up front so the first hit does not load a sound
+     */
+    public static synchronized void preload() {
+        if (voices != null) {
+            return;
+        }
+        voices = new Voice[FILES.length][];
+        for (int effect = 0; effect < FILES.length; effect++) {
+            voices[effect] = new Voice[VOICES[effect]];
+            for (int i = 0; i < VOICES[effect]; i++) {
+                voices[effect][i] = new Voice(FILES[effect]);
+            }
+        }
+    }
+    
+    /**
+     * Queues an effect for the audio thread. Called from the game thread;
+     * returns whether the request was queued rather than merged or dropped.
+     */
+    public static boolean play(int effect) {
+        long tick = GameClock.getTick();
+        if (lastQueuedTick[effect] == tick) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+        lastQueuedTick[effect] = tick;
+        return enqueue(effect);
+    }
+    
+    /**
+     * Stops every effect that is playing and drops the ones still queued.
+     * This never waits behind the queue or counts as dropped, so it works
+     * even when a busy battle has filled the queue.
+     */
+    public static void stopAll() {
+        stopRequested = true;
+        Thread thread = audioThread;
+        if (thread == null) {
+            thread = startAudioThread();
+        }
+        LockSupport.unpark(thread);
+    }
+    
+    /**
+     * Gets the sound file of every effect, indexed by effect id
+     */
+    public static String[] getEffectFiles() {
+        return FILES.clone();
+    }
+    
+    /**
+     * Gets the number of effects played
+     */
+    public static int getPlayed() {
+        return played.get();
+    }
+    
+    /**
+     * Gets the number of effects dropped because the queue was full or
+     * every voice was busy
+     */
+    public static int getDropped() {
+        return dropped.get();
+    }
+    
+    /**
+     * Gets the number of repeats of an effect merged within one tick
+     */
+    public static int getCoalesced() {
+        return coalesced.get();
+    }
+    
+    /**
+     * Gets the number of requests that threw while being played or stopped
+     */
+    public static int getFailed() {
+        return failed.get();
+    }
+    
+    private static boolean enqueue(int request) {
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        requests.offer(request);
+        Thread thread = audioThread;
+        if (thread == null) {
+            thread = startAudioThread();
+        }
+        LockSupport.unpark(thread);
+        return true;
+    }
+    
+    private static synchronized Thread startAudioThread() {
+        if (audioThread == null) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    preload();
+                    while (true) {
+                        if (stopRequested) {
+                            stopRequested = false;
+                            runSafely(STOP);
+                        }
+                        Integer request = requests.poll();
+                        if (request == null) {
+                            if (!stopRequested) {
+                                LockSupport.park();
+                            }
+                            continue;
+                        }
+                        pending.decrementAndGet();
+                        runSafely(request);
+                    }
+                }
+            }, "audio");
+            thread.setDaemon(true);
+            audioThread = thread;
+            thread.start();
+        }
+        return audioThread;
+    }
+    
+    /**
+     * Plays an effect or, for STOP, clears the queue and stops every voice.
+     * One failed request must not end the audio thread and silence the rest.
+     */
+    private static void runSafely(int request) {
+        try {
+            if (request == STOP) {
+                while (requests.poll() != null) {
+                    pending.decrementAndGet();
+                }
+                stopVoices();
+            } else {
+                playNow(request);
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.out.println("Could not play sound request " + request + ": " + e);
+        }
+    }
+    
+    /**
+     * Starts an effect if a voice is free or can be taken from a lower
+     * priority effect. Only run on the audio thread.
+     */
+    private static void playNow(int effect) {
+        if (countPlaying() >= MAX_VOICES && !stopLowerPriority(PRIORITIES[effect])) {
+            dropped.incrementAndGet();
+            return;
+        }
+        
+        // Use a free voice of this effect, or restart its oldest one
+        Voice[] pool = voices[effect];
+        Voice voice = null;
+        for (int i = 0; i < pool.length && voice == null; i++) {
+            int index = (nextVoice[effect] + i) % pool.length;
+            if (!pool[index].isPlaying()) {
+                voice = pool[index];
+                nextVoice[effect] = (index + 1) % pool.length;
+            }
+        }
+        if (voice == null) {
+            voice = pool[nextVoice[effect]];
+            nextVoice[effect] = (nextVoice[effect] + 1) % pool.length;
+            voice.stop();
+        }
+        voice.play();
+        played.incrementAndGet();
+    }
+    
+    private static void stopVoices() {
+        for (Voice[] pool : voices) {
+            for (Voice voice : pool) {
+                voice.stop();
+            }
+        }
+    }
+    
+    private static int countPlaying() {
+        int count = 0;
+        for (Voice[] pool : voices) {
+            for (Voice voice : pool) {
+                if (voice.isPlaying()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Stops one playing voice of the lowest priority below the given one
+     */
+    private static boolean stopLowerPriority(int priority) {
+        Voice lowest = null;
+        int lowestPriority = priority;
+        for (int effect = 0; effect < voices.length; effect++) {
+            if (PRIORITIES[effect] >= lowestPriority) {
+                continue;
+            }
+            for (Voice voice : voices[effect]) {
+                if (voice.isPlaying()) {
+                    lowest = voice;
+                    lowestPriority = PRIORITIES[effect];
+                    break;
+                }
+            }
+        }
+        if (lowest == null) {
+            return false;
+        }
+        lowest.stop();
+        return true;
+    }
+    
+    /**
+     * One voice of an effect, a clip opened on the decoded samples when
+     * possible and a GreenfootSound when not
+     */
+    private static class Voice {
+        private Clip clip;
+        private GreenfootSound sound;
+        
+        public Voice(String path) {
+            PcmCache.PcmSound pcm = PcmCache.get(path);
+            if (pcm != null) {
+                try {
+                    clip = AudioSystem.getClip();
+                    clip.open(pcm.getFormat(), pcm.getData(), 0, pcm.getData().length);
+                } catch (LineUnavailableException e) {
+                    clip = null;
+                } catch (IllegalArgumentException e) {
+                    clip = null; // No mixer for this format
+                }
+            }
+            if (clip == null) {
+                sound = new GreenfootSound(path);
+            }
+        }
+        
+        public void play() {
+            if (clip != null) {
+                clip.setFramePosition(0);
+                clip.start();
+            } else {
+                sound.play();
+            }
+        }
+        
+        public void stop() {
+            if (clip != null) {
+                clip.stop();
+            } else {
+                sound.stop();
+            }
+        }
+        
+        public boolean isPlaying() {
+            return clip != null ? clip.isRunning() : sound.isPlaying();
+        }
+    }
+}
+    
\ No newline at end of file
@@ -0,0 +1,153 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A uniform grid over the world that buckets units by the cells their
+ * hitboxes cover. Skill projectiles ask it for the units they hit instead
+ * of running a Greenfoot intersection query each, and a projectile whose
+ * bounds cover no occupied cell, which is most of the sky, skips the
+ * query entirely.
+ * 
+ * MyWorld rebuilds the grid once per act from the UnitRegistry. Units are
+ * filed under their reach, the hitboxes of all their frames, padded by
+ * LaneIndex.MAX_DRIFT, so units that moved or changed frame since the
+ * rebuild are still found. The final test always uses the live hitbox.
+ * 
+ * @author Ricardo Lee
+ */
+public class SpatialHash
+{
+    // About the width of a trimmed unit frame
+    public static final int CELL_SIZE = 64;
+    
+    private int columns;
+    private int rows;
+    private Unit[][] cells;
+    private int[] counts;
+    private int queriesIssued = 0;
+    private int queriesSkipped = 0;
+    private static int lastStamp = 0; // Shared by every grid, so stamps never repeat on a unit
+    
+    /**
+     * Creates an empty grid covering a world of the given size
+     */
+    public SpatialHash(int worldWidth, int worldHeight) {
+        columns = (worldWidth + CELL_SIZE - 1) / CELL_SIZE;
+        rows = (worldHeight + CELL_SIZE - 1) / CELL_SIZE;
+        cells = new Unit[columns * rows][];
+        counts = new int[columns * rows];
+    }
+    
+    /**
+     * Clears the grid and adds every registered unit
+     */
+    public void rebuild(UnitRegistry units) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                // Drop references so removed units can be collected
+                Arrays.fill(cells[i], 0, counts[i], null);
+                counts[i] = 0;
+            }
+        }
+        for (int side = 1; side <= 2; side++) {
+            for (Unit unit : units.getUnits(side)) {
+                add(unit);
+            }
+        }
+    }
+    
+    /**
+     * Adds a unit to every cell its reach covers. Units entering the world
+     * add themselves so they can be hit before the next rebuild.
+     */
+    public void add(Unit unit) {
+        int[] box = unit.getReach();
+        int pad = LaneIndex.MAX_DRIFT;
+        int firstColumn = Math.max(0, (box[0] - pad) / CELL_SIZE);
+        int lastColumn = Math.min(columns - 1, (box[2] + pad) / CELL_SIZE);
+        int firstRow = Math.max(0, (box[1] - pad) / CELL_SIZE);
+        int lastRow = Math.min(rows - 1, (box[3] + pad) / CELL_SIZE);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                addToCell(row * columns + column, unit);
+            }
+        }
+    }
+    
+    /**
+     * Gets the units whose hitboxes the projectile's bounds touch, or an
+     * empty list without looking at any unit when its cells are all empty
+     */
+    public List<Unit> getUnitsHitBy(Actor projectile) {
+        GreenfootImage image = projectile.getImage();
+        if (image == null) {
+            queriesSkipped++;
+            return Collections.emptyList();
+        }
+        // Same rotated bounds Unit.hitboxIntersects tests against
+        double radians = Math.toRadians(projectile.getRotation());
+        double cos = Math.abs(Math.cos(radians));
+        double sin = Math.abs(Math.sin(radians));
+        int halfWidth = (int) Math.ceil((image.getWidth() * cos + image.getHeight() * sin) / 2);
+        int halfHeight = (int) Math.ceil((image.getWidth() * sin + image.getHeight() * cos) / 2);
+        int firstColumn = Math.max(0, (projectile.getX() - halfWidth) / CELL_SIZE);
+        int lastColumn = Math.min(columns - 1, (projectile.getX() + halfWidth) / CELL_SIZE);
+        int firstRow = Math.max(0, (projectile.getY() - halfHeight) / CELL_SIZE);
+        int lastRow = Math.min(rows - 1, (projectile.getY() + halfHeight) / CELL_SIZE);
+        
+        // Units span several cells, a stamp per query visits each only once
+        int stamp = ++lastStamp;
+        List<Unit> hits = null;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int i = 0; i < counts[cell]; i++) {
+                    Unit unit = cells[cell][i];
+                    if (unit.getGridStamp() == stamp || unit.getWorld() == null) {
+                        continue;
+                    }
+                    unit.setGridStamp(stamp);
+                    if (hits == null) {
+                        hits = new ArrayList<Unit>();
+                    }
+                    if (unit.hitboxIntersects(projectile)) {
+                        hits.add(unit);
+                    }
+                }
+            }
+        }
+        if (hits == null) {
+            queriesSkipped++;
+            return Collections.emptyList();
+        }
+        queriesIssued++;
+        return hits;
+    }
+    
+    /**
+     * Gets the number of projectile queries that ran at least one hitbox test
+     */
+    public int getQueriesIssued() {
+        return queriesIssued;
+    }
+    
+    /**
+     * Gets the number of projectile queries answered without any hitbox
+     * test, because their cells held no units still in the world
+     */
+    public int getQueriesSkipped() {
+        return queriesSkipped;
+    }
+    
+    private void addToCell(int cell, Unit unit) {
+        if (cells[cell] == null) {
+            cells[cell] = new Unit[4];
+        } else if (counts[cell] == cells[cell].length) {
+            cells[cell] = Arrays.copyOf(cells[cell], counts[cell] * 2);
+        }
+        cells[cell][counts[cell]++] = unit;
+    }
+}
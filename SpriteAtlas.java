@@ -0,0 +1,227 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import javax.imageio.ImageIO;
+
+/**
+ * Packs the per-frame PNGs of an animation directory into one atlas image
+ * plus a text index, and slices the frames back out at load time.
+ *
+ * Packing is an offline step: run SpriteAtlas.packAll() (or the main method)
+ * whenever frames under images/ change. Each directory such as
+ * images/age1/low/walk becomes images/atlas/age1_low_walk.png with an index
+ * file images/atlas/age1_low_walk.txt holding one "name x y width height"
+ * line per frame, in natural file name order.
+ *
+ * @author Ricardo Lee
+ */
+public class SpriteAtlas
+{
+    public static final String ATLAS_DIRECTORY = "images/atlas";
+    
+    // Widest an atlas row may get before the packer starts a new one
+    private static final int MAX_ATLAS_WIDTH = 1024;
+    
+    /**
+     * Orders frame file names naturally, so walk2 comes before walk10
+     */
+    public static final Comparator<String> FRAME_ORDER = new Comparator<String>() {
+        public int compare(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                char ca = a.charAt(i);
+                char cb = b.charAt(j);
+                if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                    int startA = i;
+                    int startB = j;
+                    while (i < a.length() && Character.isDigit(a.charAt(i))) i++;
+                    while (j < b.length() && Character.isDigit(b.charAt(j))) j++;
+                    long numberA = Long.parseLong(a.substring(startA, i));
+                    long numberB = Long.parseLong(b.substring(startB, j));
+                    if (numberA != numberB) {
+                        return numberA < numberB ? -1 : 1;
+                    }
+                } else {
+                    if (ca != cb) {
+                        return ca - cb;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            return (a.length() - i) - (b.length() - j);
+        }
+    };
+    
+    /**
+     * Packs every animation directory under images/ into an atlas
+     */
+    public static void main(String[] args) throws IOException {
+        packAll();
+    }
+    
+    /**
+     * Packs all unit, explosion and plane frame directories
+     */
+    public static void packAll() throws IOException {
+        for (int age = 1; age <= 4; age++) {
+            for (String tier : new String[] { "low", "mid", "high" }) {
+                for (String action : new String[] { "walk", "attack", "death" }) {
+                    File directory = new File("images/age" + age + "/" + tier + "/" + action);
+                    if (directory.isDirectory()) {
+                        pack(directory.getPath());
+                    }
+                }
+            }
+        }
+        pack("images/explosion");
+        pack("images/plane");
+    }
+    
+    /**
+     * Packs the frames of one directory into its atlas image and index
+     */
+    public static void pack(String directoryPath) throws IOException {
+        File[] files = listFrames(directoryPath);
+        BufferedImage[] frames = new BufferedImage[files.length];
+        int[][] regions = new int[files.length][];
+        
+        // Simple shelf packing: fill rows left to right, new row when too wide
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        int atlasWidth = 0;
+        for (int i = 0; i < files.length; i++) {
+            frames[i] = ImageIO.read(files[i]);
+            int width = frames[i].getWidth();
+            int height = frames[i].getHeight();
+            if (x > 0 && x + width > MAX_ATLAS_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            regions[i] = new int[] { x, y, width, height };
+            x += width;
+            rowHeight = Math.max(rowHeight, height);
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+        int atlasHeight = y + rowHeight;
+        
+        BufferedImage atlas = new BufferedImage(atlasWidth, atlasHeight, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < frames.length; i++) {
+            atlas.getGraphics().drawImage(frames[i], regions[i][0], regions[i][1], null);
+        }
+        
+        new File(ATLAS_DIRECTORY).mkdirs();
+        ImageIO.write(atlas, "png", new File(getAtlasPath(directoryPath)));
+        PrintWriter index = new PrintWriter(getIndexPath(directoryPath));
+        try {
+            for (int i = 0; i < files.length; i++) {
+                index.println(files[i].getName() + " " + regions[i][0] + " " + regions[i][1]
+                    + " " + regions[i][2] + " " + regions[i][3]);
+            }
+        } finally {
+            index.close();
+        }
+    }
+    
+    /**
+     * Checks if a packed atlas exists for the directory
+     */
+    public static boolean hasAtlas(String directoryPath) {
+        return new File(getIndexPath(directoryPath)).exists();
+    }
+    
+    /**
+     * Loads the frames of a directory from its atlas with a single decode.
+     * Returns null if the directory has not been packed.
+     */
+    public static GreenfootImage[] load(String directoryPath) {
+        File indexFile = new File(getIndexPath(directoryPath));
+        if (!indexFile.exists()) {
+            return null;
+        }
+        ArrayList<int[]> regions = new ArrayList<int[]>();
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(indexFile));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.trim().split(" ");
+                    if (parts.length < 5) {
+                        continue;
+                    }
+                    int n = parts.length;
+                    regions.add(new int[] {
+                        Integer.parseInt(parts[n - 4]), Integer.parseInt(parts[n - 3]),
+                        Integer.parseInt(parts[n - 2]), Integer.parseInt(parts[n - 1])
+                    });
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        if (regions.isEmpty()) {
+            return null;
+        }
+        
+        GreenfootImage atlas = DiskImageCache.load(getAtlasPath(directoryPath));
+        GreenfootImage[] frames = new GreenfootImage[regions.size()];
+        for (int i = 0; i < frames.length; i++) {
+            int[] region = regions.get(i);
+            // Slice the frame by drawing the atlas shifted onto a frame sized image
+            frames[i] = new GreenfootImage(region[2], region[3]);
+            frames[i].drawImage(atlas, -region[0], -region[1]);
+        }
+        return frames;
+    }
+    
+    /**
+     * Lists the frame files of a directory in natural name order
+     */
+    public static File[] listFrames(String directoryPath) {
+        File[] files = new File(directoryPath).listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            public int compare(File a, File b) {
+                return FRAME_ORDER.compare(a.getName(), b.getName());
+            }
+        });
+        return files;
+    }
+    
+    private static String getAtlasPath(String directoryPath) {
+        return ATLAS_DIRECTORY + "/" + getAtlasName(directoryPath) + ".png";
+    }
+    
+    private static String getIndexPath(String directoryPath) {
+        return ATLAS_DIRECTORY + "/" + getAtlasName(directoryPath) + ".txt";
+    }
+    
+    private static String getAtlasName(String directoryPath) {
+        String name = directoryPath.replace('\\', '/');
+        if (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        if (name.startsWith("images/")) {
+            name = name.substring("images/".length());
+        }
+        while (name.endsWith("/")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return name.replace('/', '_');
+    }
+}
+    
\ No newline at end of file
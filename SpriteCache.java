@@ -0,0 +1,358 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of decoded animation frames, keyed by directory.
+ * The first request for a directory decodes its images, every later
+ * request gets the same SpriteSet back, so spawning a unit only costs
+ * a new Animator cursor instead of a round of PNG decodes.
+ * Frames come from the packed atlas of a directory when SpriteAtlas has
+ * written one, otherwise from the individual files in natural name order.
+ * Horizontally mirrored variants are built once per set and cached
+ * alongside the originals for units walking right to left.
+ * 
+ * The cache is safe to fill from the AssetPreloader's worker threads while
+ * the game thread reads it. Two threads missing the same key at once may
+ * both decode it, but only the first result is kept.
+ * 
+ * Every set records its decoded size. When the total goes over the memory
+ * budget, the least recently used sets of ages below the lowest age still
+ * in play are evicted. Animators already playing an evicted set keep
+ * their reference, so only new units would decode it again.
+ * 
+ * @author Ricardo Lee
+ */
+public class SpriteCache
+{
+    private static ConcurrentHashMap<String, SpriteSet> sets = new ConcurrentHashMap<String, SpriteSet>();
+    private static ConcurrentHashMap<String, Boolean> directories = new ConcurrentHashMap<String, Boolean>();
+    private static AtomicInteger hits = new AtomicInteger();
+    private static AtomicInteger misses = new AtomicInteger();
+    private static AtomicInteger evictions = new AtomicInteger();
+    private static AtomicLong footprint = new AtomicLong(); // Decoded bytes held
+    private static AtomicLong clock = new AtomicLong(); // Stamps sets for LRU order
+    
+    private static long memoryBudget = 16L * 1024 * 1024; // Bytes before evicting
+    private static int minActiveAge = 1; // Lowest age either side can still spawn
+    
+    private static boolean useAtlases = true; // Slice frames from images/atlas when packed
+    
+    private static final String MIRRORED_SUFFIX = "#mirrored";
+    
+    /**
+     * Gets the frames of a directory, decoding them on the first request.
+     */
+    public static SpriteSet getFrames(String directoryPath) {
+        String key = normalize(directoryPath);
+        SpriteSet set = lookup(key);
+        if (set != null) {
+            hits.incrementAndGet();
+            return set;
+        }
+        misses.incrementAndGet();
+        return store(key, loadFrames(key));
+    }
+    
+    /**
+     * Gets the frames of a directory, mirrored horizontally if requested.
+     * The mirrored variant is made from the cached originals the first time
+     * it is asked for.
+     */
+    public static SpriteSet getFrames(String directoryPath, boolean mirrored) {
+        if (!mirrored) {
+            return getFrames(directoryPath);
+        }
+        String key = normalize(directoryPath) + MIRRORED_SUFFIX;
+        SpriteSet set = lookup(key);
+        if (set != null) {
+            hits.incrementAndGet();
+            return set;
+        }
+        misses.incrementAndGet();
+        return store(key, mirror(getOriginal(directoryPath)));
+    }
+    
+    /**
+     * Gets a single image scaled down to fit within the given bounds and
+     * mirrored if requested. The prepared image is shared, so callers
+     * must not modify it.
+     */
+    public static GreenfootImage getImage(String path, int maxWidth, int maxHeight, boolean mirrored) {
+        String key = getImageKey(path, maxWidth, maxHeight, mirrored);
+        SpriteSet set = lookup(key);
+        if (set != null) {
+            hits.incrementAndGet();
+            return set.getFrame(0);
+        }
+        misses.incrementAndGet();
+        GreenfootImage image = DiskImageCache.load(path);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width > maxWidth || height > maxHeight) {
+            double scale = Math.min((double) maxWidth / width, (double) maxHeight / height);
+            image.scale((int)(width * scale), (int)(height * scale));
+        }
+        if (mirrored) {
+            image.mirrorHorizontally();
+        }
+        return store(key, new SpriteSet(path, new GreenfootImage[] { image })).getFrame(0);
+    }
+    
+    /**
+     * Gets the frames of a directory scaled to the given size. Each size is
+     * scaled once from the cached originals and shared afterwards. Frames
+     * were trimmed to different sizes, so all of them are scaled by the one
+     * factor that takes the untrimmed frame size to the requested size;
+     * trims are centred, so every frame keeps its place and proportions.
+     */
+    public static SpriteSet getScaledFrames(String directoryPath, int width, int height) {
+        String key = getScaledKey(directoryPath, width, height);
+        SpriteSet set = lookup(key);
+        if (set != null) {
+            hits.incrementAndGet();
+            return set;
+        }
+        misses.incrementAndGet();
+        SpriteSet original = getOriginal(directoryPath);
+        double scaleX = (double) width / original.getSourceWidth();
+        double scaleY = (double) height / original.getSourceHeight();
+        GreenfootImage[] frames = new GreenfootImage[original.getSize()];
+        for (int i = 0; i < frames.length; i++) {
+            GreenfootImage frame = original.getFrame(i);
+            frames[i] = new GreenfootImage(frame);
+            frames[i].scale(Math.max(1, (int) Math.round(frame.getWidth() * scaleX)),
+                            Math.max(1, (int) Math.round(frame.getHeight() * scaleY)));
+        }
+        return store(key, new SpriteSet(original.getDirectoryPath(), frames, width, height));
+    }
+    
+    /**
+     * Checks if a scaled variant is already cached, without building it
+     */
+    public static boolean hasScaledFrames(String directoryPath, int width, int height) {
+        return sets.containsKey(getScaledKey(directoryPath, width, height));
+    }
+    
+    /**
+     * Checks if a directory exists, only asking the file system once per path
+     */
+    public static boolean hasFrames(String directoryPath) {
+        String key = normalize(directoryPath);
+        Boolean exists = directories.get(key);
+        if (exists == null) {
+            File directory = new File(key);
+            exists = directory.exists() && directory.isDirectory();
+            directories.put(key, exists);
+        }
+        return exists;
+    }
+    
+    /**
+     * Sets whether frames are sliced from packed atlases when available,
+     * or always decoded from the individual frame files
+     */
+    public static void setUseAtlases(boolean use) {
+        useAtlases = use;
+    }
+    
+    /**
+     * Sets the number of decoded bytes the cache may hold before it starts
+     * evicting sets of ages that are no longer in play
+     */
+    public static void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+        evictIfOverBudget();
+    }
+    
+    /**
+     * Gets the memory budget in bytes
+     */
+    public static long getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    /**
+     * Sets the lowest age either side can still spawn. Sets of older ages
+     * become candidates for eviction. A new game resets this to 1.
+     */
+    public static void setMinActiveAge(int age) {
+        minActiveAge = age;
+        evictIfOverBudget();
+    }
+    
+    /**
+     * Gets the approximate memory held by all cached sets in bytes
+     */
+    public static long getFootprintBytes() {
+        return footprint.get();
+    }
+    
+    /**
+     * Gets the number of sets evicted so far
+     */
+    public static int getEvictions() {
+        return evictions.get();
+    }
+    
+    /**
+     * Gets the number of requests answered from the cache
+     */
+    public static int getHits() {
+        return hits.get();
+    }
+    
+    /**
+     * Gets the number of requests whose set had to be built, by decoding,
+     * mirroring or scaling
+     */
+    public static int getMisses() {
+        return misses.get();
+    }
+    
+    /**
+     * Gets the number of directories currently cached
+     */
+    public static int getSetCount() {
+        return sets.size();
+    }
+    
+    /**
+     * Checks if a directory's frames are already cached, without loading them
+     */
+    public static boolean isLoaded(String directoryPath, boolean mirrored) {
+        return sets.containsKey(normalize(directoryPath) + (mirrored ? MIRRORED_SUFFIX : ""));
+    }
+    
+    /**
+     * Checks if an image prepared by getImage is already cached
+     */
+    public static boolean isImageLoaded(String path, int maxWidth, int maxHeight, boolean mirrored) {
+        return sets.containsKey(getImageKey(path, maxWidth, maxHeight, mirrored));
+    }
+    
+    /**
+     * Finds a cached set and marks it used. Hits and misses are counted by
+     * the public getters, once per request, from their own lookup.
+     */
+    private static SpriteSet lookup(String key) {
+        SpriteSet set = sets.get(key);
+        if (set != null) {
+            set.touch(clock.incrementAndGet());
+        }
+        return set;
+    }
+    
+    /**
+     * Gets the original frames a variant is made from, without counting
+     * another hit or miss for the request being served
+     */
+    private static SpriteSet getOriginal(String directoryPath) {
+        String key = normalize(directoryPath);
+        SpriteSet set = lookup(key);
+        if (set != null) {
+            return set;
+        }
+        return store(key, loadFrames(key));
+    }
+    
+    private static SpriteSet store(String key, SpriteSet set) {
+        // Keep the first result if another thread finished the same key first
+        SpriteSet existing = sets.putIfAbsent(key, set);
+        if (existing != null) {
+            return existing;
+        }
+        set.touch(clock.incrementAndGet());
+        footprint.addAndGet(set.getBytes());
+        evictIfOverBudget();
+        return set;
+    }
+    
+    /**
+     * Evicts the least recently used sets of ages no longer in play until
+     * the footprint is back under budget or nothing else can go
+     */
+    private static synchronized void evictIfOverBudget() {
+        if (footprint.get() <= memoryBudget) {
+            return;
+        }
+        ArrayList<Map.Entry<String, SpriteSet>> candidates = new ArrayList<Map.Entry<String, SpriteSet>>();
+        for (Map.Entry<String, SpriteSet> entry : sets.entrySet()) {
+            int age = entry.getValue().getAge();
+            if (age > 0 && age < minActiveAge) {
+                candidates.add(entry);
+            }
+        }
+        Collections.sort(candidates, new Comparator<Map.Entry<String, SpriteSet>>() {
+            public int compare(Map.Entry<String, SpriteSet> a, Map.Entry<String, SpriteSet> b) {
+                return Long.compare(a.getValue().getLastUsed(), b.getValue().getLastUsed());
+            }
+        });
+        for (Map.Entry<String, SpriteSet> entry : candidates) {
+            if (footprint.get() <= memoryBudget) {
+                break;
+            }
+            if (sets.remove(entry.getKey(), entry.getValue())) {
+                footprint.addAndGet(-entry.getValue().getBytes());
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    private static SpriteSet loadFrames(String directoryPath) {
+        // A packed atlas needs one decode for the whole set
+        GreenfootImage[] frames = useAtlases ? SpriteAtlas.load(directoryPath) : null;
+        if (frames == null) {
+            File[] files = SpriteAtlas.listFrames(directoryPath);
+            if (files.length == 0) {
+                throw new IllegalArgumentException("No frames found in " + directoryPath);
+            }
+            // Otherwise decode the loose frames across all cores
+            String[] paths = new String[files.length];
+            for (int i = 0; i < files.length; i++) {
+                paths[i] = directoryPath + "/" + files[i].getName();
+            }
+            frames = ParallelDecoder.decodeAll(paths);
+        }
+        // Drop transparent borders so there is less to draw and to collide with,
+        // remembering the untrimmed size for scaling later
+        int sourceWidth = 0;
+        int sourceHeight = 0;
+        for (int i = 0; i < frames.length; i++) {
+            sourceWidth = Math.max(sourceWidth, frames[i].getWidth());
+            sourceHeight = Math.max(sourceHeight, frames[i].getHeight());
+            frames[i] = SpriteTrimmer.trim(frames[i]);
+        }
+        return new SpriteSet(directoryPath, frames, sourceWidth, sourceHeight);
+    }
+    
+    private static SpriteSet mirror(SpriteSet original) {
+        GreenfootImage[] frames = new GreenfootImage[original.getSize()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new GreenfootImage(original.getFrame(i));
+            frames[i].mirrorHorizontally();
+        }
+        return new SpriteSet(original.getDirectoryPath(), frames, original.getSourceWidth(), original.getSourceHeight());
+    }
+    
+    private static String getImageKey(String path, int maxWidth, int maxHeight, boolean mirrored) {
+        return path + "@" + maxWidth + "x" + maxHeight + (mirrored ? MIRRORED_SUFFIX : "");
+    }
+    
+    private static String getScaledKey(String directoryPath, int width, int height) {
+        return normalize(directoryPath) + "@" + width + "x" + height;
+    }
+    
+    private static String normalize(String directoryPath) {
+        while (directoryPath.endsWith("/")) {
+            directoryPath = directoryPath.substring(0, directoryPath.length() - 1);
+        }
+        return directoryPath;
+    }
+}
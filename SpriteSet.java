@@ -0,0 +1,170 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * An immutable sequence of animation frames loaded from one image directory.
+ * SpriteSets are shared by every Animator that plays the same directory,
+ * so the frames must never be scaled, mirrored or drawn on.
+ * Each frame also has a tight hitbox around its visible pixels.
+ * 
+ * @author Ricardo Lee
+ */
+public class SpriteSet
+{
+    private final String directoryPath;
+    private final GreenfootImage[] frames;
+    private final int[][] hitboxes; // Visible area of each frame around its centre
+    private final int[] bounds; // Union of all the hitboxes
+    private final int sourceWidth; // Frame size before transparent borders were trimmed
+    private final int sourceHeight;
+    private final long bytes; // Decoded size, 4 bytes per pixel
+    private final int age; // 0 if the set does not belong to an age
+    private volatile long lastUsed; // SpriteCache access stamp for LRU eviction
+    
+    /**
+     * Creates a sprite set from already decoded, untrimmed frames.
+     */
+    public SpriteSet(String directoryPath, GreenfootImage[] frames) {
+        this(directoryPath, frames, getMaxWidth(frames), getMaxHeight(frames));
+    }
+    
+    /**
+     * Creates a sprite set from frames that were trimmed from frames of the
+     * given size.
+     */
+    public SpriteSet(String directoryPath, GreenfootImage[] frames, int sourceWidth, int sourceHeight) {
+        this.directoryPath = directoryPath;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.frames = frames;
+        hitboxes = new int[frames.length][];
+        bounds = new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE };
+        long total = 0;
+        for (int i = 0; i < frames.length; i++) {
+            // Keep only the display format copy of each frame
+            frames[i] = ImageFormat.toDisplayFormat(frames[i]);
+            hitboxes[i] = SpriteTrimmer.findHitbox(frames[i]);
+            bounds[0] = Math.min(bounds[0], hitboxes[i][0]);
+            bounds[1] = Math.min(bounds[1], hitboxes[i][1]);
+            bounds[2] = Math.max(bounds[2], hitboxes[i][2]);
+            bounds[3] = Math.max(bounds[3], hitboxes[i][3]);
+            total += (long) frames[i].getWidth() * frames[i].getHeight() * 4;
+        }
+        this.bytes = total;
+        this.age = findAge(directoryPath);
+    }
+    
+    /**
+     * Gets the directory the frames were loaded from
+     */
+    public String getDirectoryPath() {
+        return directoryPath;
+    }
+    
+    /**
+     * Gets the frame at the given index
+     */
+    public GreenfootImage getFrame(int index) {
+        return frames[index];
+    }
+    
+    /**
+     * Gets the hitbox of a frame as {left, top, right, bottom} relative to
+     * the actor's location. Shared, so it must not be modified.
+     */
+    public int[] getHitbox(int index) {
+        return hitboxes[index];
+    }
+    
+    /**
+     * Gets the smallest box holding the hitboxes of every frame, in the
+     * same form as getHitbox. Shared, so it must not be modified.
+     */
+    public int[] getBounds() {
+        return bounds;
+    }
+    
+    /**
+     * Gets the width of the frames before their borders were trimmed
+     */
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+    
+    /**
+     * Gets the height of the frames before their borders were trimmed
+     */
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+    
+    /**
+     * Gets the number of frames in the set
+     */
+    public int getSize() {
+        return frames.length;
+    }
+    
+    /**
+     * Gets the approximate memory used by the decoded frames in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+    
+    /**
+     * Gets the age the set belongs to, from images/ageN/... or
+     * images/bases/N.png, or 0 for sets used in every age
+     */
+    public int getAge() {
+        return age;
+    }
+    
+    /**
+     * Gets the stamp of the last time the cache handed out this set
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+    
+    /**
+     * Records that the cache handed out this set
+     */
+    public void touch(long stamp) {
+        lastUsed = stamp;
+    }
+    
+    private static int getMaxWidth(GreenfootImage[] frames) {
+        int width = 0;
+        for (GreenfootImage frame : frames) {
+            width = Math.max(width, frame.getWidth());
+        }
+        return width;
+    }
+    
+    private static int getMaxHeight(GreenfootImage[] frames) {
+        int height = 0;
+        for (GreenfootImage frame : frames) {
+            height = Math.max(height, frame.getHeight());
+        }
+        return height;
+    }
+    
+    private static int findAge(String path) {
+        String[] prefixes = { "images/age", "images/bases/" };
+        for (String prefix : prefixes) {
+            int start = path.indexOf(prefix);
+            if (start < 0) {
+                continue;
+            }
+            start += prefix.length();
+            int end = start;
+            while (end < path.length() && Character.isDigit(path.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                return Integer.parseInt(path.substring(start, end));
+            }
+        }
+        return 0;
+    }
+}
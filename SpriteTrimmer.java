@@ -0,0 +1,84 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.image.BufferedImage;
+
+/**
+ * Finds the visible part of a sprite and crops away transparent borders.
+ * 
+ * Greenfoot draws an actor's image centred on its location, so crops are
+ * symmetric: the same amount is taken off the left and right (and top and
+ * bottom), which leaves the image centre, and therefore the actor's
+ * anchor, exactly where it was. The tight box of visible pixels is kept
+ * separately as an offset from that centre and used as the hitbox.
+ * 
+ * @author Ricardo Lee
+ */
+public class SpriteTrimmer
+{
+    // Pixels at or below this alpha count as transparent
+    private static final int ALPHA_THRESHOLD = 8;
+    
+    /**
+     * Finds the bounds of the visible pixels as {left, top, right, bottom},
+     * right and bottom exclusive. Returns null for a fully transparent image.
+     */
+    public static int[] findOpaqueBounds(GreenfootImage image) {
+        BufferedImage pixels = image.getAwtImage();
+        int width = pixels.getWidth();
+        int height = pixels.getHeight();
+        int[] row = new int[width];
+        int left = width;
+        int top = height;
+        int right = -1;
+        int bottom = -1;
+        for (int y = 0; y < height; y++) {
+            pixels.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                if ((row[x] >>> 24) > ALPHA_THRESHOLD) {
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                    top = Math.min(top, y);
+                    bottom = Math.max(bottom, y);
+                }
+            }
+        }
+        if (right < 0) {
+            return null;
+        }
+        return new int[] { left, top, right + 1, bottom + 1 };
+    }
+    
+    /**
+     * Gets the hitbox of an image as {left, top, right, bottom} relative to
+     * the image centre, which is where Greenfoot places the actor
+     */
+    public static int[] findHitbox(GreenfootImage image) {
+        int[] bounds = findOpaqueBounds(image);
+        if (bounds == null) {
+            bounds = new int[] { 0, 0, image.getWidth(), image.getHeight() };
+        }
+        int centerX = image.getWidth() / 2;
+        int centerY = image.getHeight() / 2;
+        return new int[] { bounds[0] - centerX, bounds[1] - centerY, bounds[2] - centerX, bounds[3] - centerY };
+    }
+    
+    /**
+     * Crops the transparent border of an image, symmetrically so its centre
+     * stays in place. Returns the image itself if there is nothing to crop.
+     */
+    public static GreenfootImage trim(GreenfootImage image) {
+        int[] bounds = findOpaqueBounds(image);
+        if (bounds == null) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int marginX = Math.min(bounds[0], width - bounds[2]);
+        int marginY = Math.min(bounds[1], height - bounds[3]);
+        if (marginX == 0 && marginY == 0) {
+            return image;
+        }
+        GreenfootImage trimmed = new GreenfootImage(width - 2 * marginX, height - 2 * marginY);
+        trimmed.drawImage(image, -marginX, -marginY);
+        return trimmed;
+    }
+}
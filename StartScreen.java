@@ -1,4 +1,5 @@
 import greenfoot.*;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * The start screen of the game
@@ -16,31 +17,34 @@ public class StartScreen extends World
         // Create a new world with 600x400 cells with a cell size of 1x1 pixels.
         super(1024, 800, 1); 
         
+        // Start decoding this screen's images in parallel
+        ForkJoinTask<GreenfootImage> settin = ParallelDecoder.submit("setting.png", 0.8);
+        ForkJoinTask<GreenfootImage> play = ParallelDecoder.submit("play.png", 0.8);
+        ForkJoinTask<GreenfootImage> bg = ParallelDecoder.submit("startingbg.png", 1024, 800);
+        ForkJoinTask<GreenfootImage> title = ParallelDecoder.submit("title.png", 0.3);
+        
+        // Decode the battle sprites in the background while on this screen
+        AssetPreloader.start();
+        
         //World Instances
         Settings s = new Settings();
-        MyWorld m = new MyWorld();
         
         
         // Button to Setting Screen
-        GreenfootImage settin = new GreenfootImage("setting.png");
-        settin.scale((int)(settin.getWidth() * 0.8), (int)(settin.getHeight() * 0.8));
-        NextBut settinScreen = new NextBut(settin,s);
+        NextBut settinScreen = new NextBut(settin.join(),s);
         addObject(settinScreen,getWidth()/2,600);
         
-        // Button to Setting Screen
-        GreenfootImage play = new GreenfootImage("play.png");
-        play.scale((int)(play.getWidth() * 0.8), (int)(play.getHeight() * 0.8));
-        NextBut playWorld = new NextBut(play,m);
+        // Button to start the game, MyWorld is made once loading is done
+        PlayButton playWorld = new PlayButton(play.join());
         addObject(playWorld,getWidth()/2,500);
         
+        //Loading progress
+        addObject(new LoadingBar(),getWidth()/2,700);
+        
         //Bg
-        GreenfootImage bg = new GreenfootImage("startingbg.png");
-        bg.scale(1024,800);
-        setBackground(bg);
+        setBackground(bg.join());
 
         //title
-        GreenfootImage title = new GreenfootImage("title.png");
-        title.scale((int)(title.getWidth() * 0.3), (int)(title.getHeight() * 0.3));
-        getBackground().drawImage(title,getWidth()/2-230,150);
+        getBackground().drawImage(title.join(),getWidth()/2-230,150);
     }
 }
\ No newline at end of file
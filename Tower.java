@@ -31,22 +31,9 @@ public class Tower extends Actor
      */
     private void updateImage()
     {
+        // Bases are scaled to fit 200x300 and mirrored for side 2 once, then shared
         String imagePath = "images/bases/" + age + ".png";
-        GreenfootImage image = new GreenfootImage(imagePath);
-        
-        int width = image.getWidth();
-        int height = image.getHeight();
-        
-        if (width > 200 || height > 300) {
-            double scale = Math.min(200.0 / width, 300.0 / height);
-            image.scale((int)(width * scale), (int)(height * scale));
-        }
-        
-        if (side == 2) {
-            image.mirrorHorizontally();
-        }
-        
-        setImage(image);
+        setImage(SpriteCache.getImage(imagePath, 200, 300, side == 2));
     }
     
     /**
@@ -1,6 +1,5 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 import java.util.ArrayList;
-import java.io.File;
 
 /**
  * The abstract class for all units
@@ -20,14 +19,20 @@ public abstract class Unit extends SuperSmoothMover
     protected Animator walkAnimation;
     protected Animator attackAnimation;
     protected Animator deathAnimation;
+    protected Animator shownAnimation; // Animation whose frame is currently shown
+    private GreenfootImage shownFrame; // Frame currently shown, without any composited bar
     protected double speed = 1; // Default speed
     protected int attackDamage = 10; // Default attack damage
     protected int attackCooldown = 0; // Cooldown between attacks
     protected int attackRange = 50; // Default attack range
     protected HPBar hpBar; // Reference to the HP bar
-    protected GreenfootSound deathSound; // Sound to play when unit dies
     private boolean hasDealtDamageThisCycle = false; // Flag to track if damage was dealt in current animation cycle
     protected boolean killedBySpecialSkill = false; // Flag to track if unit was killed by special skill
+    private String tier; // "low", "mid" or "high"
+    private int registryIndex = -1; // Position in the UnitRegistry, -1 when not registered
+    private int gridStamp; // Last SpatialHash query that looked at this unit
+    private Unit lockedTarget; // Enemy kept as the target until it is no longer valid
+    private long lockedEpoch; // Enemy side's registry epoch when the target was locked
     
     // XP rewards constants
     public static final int LOW_XP_REWARD = 10;
@@ -49,33 +54,31 @@ public abstract class Unit extends SuperSmoothMover
         this.direction = direction;
         moving = true;
         attacking = false;
+        this.tier = type;
         String basePath = "images/age" + age + "/" + type + "/";
-        walkAnimation = new Animator(basePath + "walk");
-        attackAnimation = new Animator(basePath + "attack");
-        File d = new File(basePath + "death");
-        if (d.exists() && d.isDirectory()) {
-            deathAnimation = new Animator(basePath + "death");
+        // Units walking right to left (-1) use the cached mirrored frames
+        boolean mirrored = direction == -1;
+        walkAnimation = new Animator(basePath + "walk", mirrored);
+        attackAnimation = new Animator(basePath + "attack", mirrored);
+        if (SpriteCache.hasFrames(basePath + "death")) {
+            deathAnimation = new Animator(basePath + "death", mirrored);
         } else {
             deathAnimation = null;
         }
-        
-        // Only flip the animations if direction is right to left (-1)
-        if (direction == -1) {
-            walkAnimation.flip();
-            attackAnimation.flip();
-            if (deathAnimation != null) {
-                deathAnimation.flip();
-            }
-        }
         this.attackDamage = 25;
-        // Initialize death sound
-        deathSound = new GreenfootSound("./sounds/oof.mp3");
     }
     
     /**
-     * Creates and adds HP bar
+     * Creates and adds HP bar, unless bars are drawn into the unit image
      */
     public void addedToWorld(World world) {
+        // Join the battle's registry, lane index and grid
+        if (world instanceof MyWorld) {
+            ((MyWorld) world).addUnit(this);
+        }
+        if (HPBar.isCompositeMode()) {
+            return;
+        }
         hpBar = new HPBar(this, maxHP);
         world.addObject(hpBar, getX(), getY() - 30);
     }
@@ -91,6 +94,15 @@ public abstract class Unit extends SuperSmoothMover
      * Checks if there is an enemy tower within the specified range
      */
     public Tower enemyTowerInRange(int r) {
+        if (getWorld() instanceof MyWorld) {
+            Tower tower = ((MyWorld) getWorld()).getTower(getSide() == 1 ? 2 : 1);
+            if (tower == null || tower.getWorld() == null) {
+                return null;
+            }
+            long dx = tower.getX() - getX();
+            long dy = tower.getY() - getY();
+            return dx * dx + dy * dy <= (long) r * r ? tower : null;
+        }
         java.util.List<Tower> towers = getObjectsInRange(r, Tower.class);
         for (Tower t : towers) {
             if ((direction == 1 && t.getSide() == 2) || (direction == -1 && t.getSide() == 1)) {
@@ -118,7 +130,7 @@ public abstract class Unit extends SuperSmoothMover
                 death();
             } else {
                 // Play death sound
-                deathSound.play();
+                SoundManager.play(SoundManager.UNIT_DEATH);
                 
                 // Award gold and XP - check if killed by special skill
                 if (killedBySpecialSkill) {
@@ -128,13 +140,13 @@ public abstract class Unit extends SuperSmoothMover
                 }
                 
                 // Then remove the unit
-                getWorld().removeObject(this);
+                removeFromWorld();
             }
             return;
         }
         
         if (!attacking) {
-            Unit enemy = enemyInRange(attackRange);
+            Unit enemy = getTarget(attackRange);
             if (enemy != null) {
                 attacking = true;
                 moving = false;
@@ -155,7 +167,7 @@ public abstract class Unit extends SuperSmoothMover
             Unit friendlyAhead = friendlyUnitAhead();
             if (friendlyAhead == null) {
                 // Only move if no friendly unit is too close ahead
-                setImage(walkAnimation.getCurrentFrame());
+                showFrame(walkAnimation);
                 setLocation(getX() + speed * direction, getY());
             }
         }
@@ -170,7 +182,7 @@ public abstract class Unit extends SuperSmoothMover
      */
     protected void performAttack() {
         // Get the current attack frame without flipping it again
-        setImage(attackAnimation.getCurrentFrame());
+        showFrame(attackAnimation);
         
         // If attack animation is at the last frame (one complete cycle)
         if (attackAnimation.getImageIndex() == attackAnimation.getSize() - 1) {
@@ -181,7 +193,7 @@ public abstract class Unit extends SuperSmoothMover
         int attackFrame = attackAnimation.getSize() / 2;
         if (attackAnimation.getImageIndex() == attackFrame && !hasDealtDamageThisCycle && attackCooldown == 0) {
             // First check for enemy units
-            Unit enemy = enemyInRange(attackRange);
+            Unit enemy = getTarget(attackRange);
             if (enemy != null) {
                 enemy.attack(attackDamage);
                 attackCooldown = 10;
@@ -208,10 +220,10 @@ public abstract class Unit extends SuperSmoothMover
     protected void death() {
         // Play death sound at the start of death animation
         if (deathAnimation.getImageIndex() == 0) {
-            deathSound.play();
+            SoundManager.play(SoundManager.UNIT_DEATH);
         }
         
-        setImage(deathAnimation.getCurrentFrame());
+        showFrame(deathAnimation);
         if (deathAnimation.getImageIndex() + 1 == deathAnimation.getSize()) {
             // Check if killed by special skill
             if (killedBySpecialSkill) {
@@ -219,7 +231,7 @@ public abstract class Unit extends SuperSmoothMover
             } else {
                 awardRewards(); // Normal kill counter
             }
-            getWorld().removeObject(this);
+            removeFromWorld();
         }
     }
     
@@ -289,6 +301,7 @@ public abstract class Unit extends SuperSmoothMover
     public void attack(int damage) {
         hp -= damage;
         killedBySpecialSkill = false;
+        refreshCompositeBar();
     }
     
     /**
@@ -298,6 +311,60 @@ public abstract class Unit extends SuperSmoothMover
         return direction;
     }
     
+    /**
+     * Gets unit age
+     */
+    public int getAge() {
+        return age;
+    }
+    
+    /**
+     * Gets unit tier, "low", "mid" or "high"
+     */
+    public String getTier() {
+        return tier;
+    }
+    
+    /**
+     * Gets the position of this unit in the UnitRegistry, -1 if none
+     */
+    int getRegistryIndex() {
+        return registryIndex;
+    }
+    
+    /**
+     * Sets the position of this unit in the UnitRegistry
+     */
+    void setRegistryIndex(int index) {
+        registryIndex = index;
+    }
+    
+    /**
+     * Gets the stamp of the last SpatialHash query that looked at this unit
+     */
+    int getGridStamp() {
+        return gridStamp;
+    }
+    
+    /**
+     * Marks this unit as looked at by a SpatialHash query
+     */
+    void setGridStamp(int stamp) {
+        gridStamp = stamp;
+    }
+    
+    /**
+     * Removes this unit from its world, leaving the battle's registry too
+     */
+    protected void removeFromWorld() {
+        World world = getWorld();
+        if (world instanceof MyWorld) {
+            ((MyWorld) world).removeUnit(this);
+        } else if (world != null) {
+            world.removeObject(this);
+        }
+    }
+    
     /**
      * Applies damage if the special skill was activated by enemy
      */
@@ -306,11 +373,12 @@ public abstract class Unit extends SuperSmoothMover
         
         if (unitSide != side) {
             hp -= damage;
+            refreshCompositeBar();
             
             if (hp <= 0) {
                 killedBySpecialSkill = true;
                 
-                deathSound.play();
+                SoundManager.play(SoundManager.UNIT_DEATH);
             }
         }
     }
@@ -321,6 +389,11 @@ public abstract class Unit extends SuperSmoothMover
     public Unit friendlyUnitAhead() {
         int requiredSpacing = 50; 
         
+        // Only the few units of this side just ahead in the lane are checked
+        if (getWorld() instanceof MyWorld) {
+            return ((MyWorld) getWorld()).getLane(getSide()).nearestAhead(this, direction, requiredSpacing, 10);
+        }
+        
         ArrayList<Unit> units = new ArrayList<Unit>();
         for (Unit u : getWorld().getObjects(Unit.class)) {
             if (Math.abs(u.getY() - getY()) < 10) {
@@ -363,6 +436,94 @@ public abstract class Unit extends SuperSmoothMover
         return unitX >= x1 && unitX <= x2 && unitY >= y1 && unitY <= y2;
     }
     
+    /**
+     * Shows the current frame of an animation and remembers it for hitboxes
+     */
+    protected void showFrame(Animator animation) {
+        shownFrame = animation.getCurrentFrame();
+        shownAnimation = animation;
+        if (hpBar == null && HPBar.isCompositeMode()) {
+            setImage(HPBar.composite(shownFrame, hp, maxHP));
+        } else {
+            setImage(shownFrame);
+        }
+    }
+    
+    /**
+     * Redraws the composited HP bar over the frame already shown, so units
+     * that are not animating, like ones waiting behind a friend, still show
+     * damage as it happens
+     */
+    private void refreshCompositeBar() {
+        if (hpBar == null && shownFrame != null && HPBar.isCompositeMode()) {
+            setImage(HPBar.composite(shownFrame, hp, maxHP));
+        }
+    }
+    
+    /**
+     * Gets the tight hitbox of the shown frame in world coordinates as
+     * {left, top, right, bottom}, falling back to the full image bounds
+     */
+    public int[] getHitbox() {
+        int[] box = shownAnimation != null ? shownAnimation.getCurrentHitbox() : null;
+        if (box == null) {
+            GreenfootImage image = getImage();
+            if (image == null) {
+                return new int[] { getX(), getY(), getX(), getY() };
+            }
+            int halfWidth = image.getWidth() / 2;
+            int halfHeight = image.getHeight() / 2;
+            return new int[] { getX() - halfWidth, getY() - halfHeight, getX() + halfWidth, getY() + halfHeight };
+        }
+        return new int[] { getX() + box[0], getY() + box[1], getX() + box[2], getY() + box[3] };
+    }
+    
+    /**
+     * Gets a box in world coordinates that holds this unit's hitbox for
+     * every frame it can show, so it stays valid across frame changes
+     */
+    public int[] getReach() {
+        int[] box = getHitbox();
+        Animator[] animations = { walkAnimation, attackAnimation, deathAnimation };
+        for (Animator animation : animations) {
+            if (animation == null) {
+                continue;
+            }
+            int[] bounds = animation.getBounds();
+            if (bounds == null) {
+                // Scaled frames, no cached bounds to go by
+                int pad = SpatialHash.CELL_SIZE;
+                return new int[] { box[0] - pad, box[1] - pad, box[2] + pad, box[3] + pad };
+            }
+            box[0] = Math.min(box[0], getX() + bounds[0]);
+            box[1] = Math.min(box[1], getY() + bounds[1]);
+            box[2] = Math.max(box[2], getX() + bounds[2]);
+            box[3] = Math.max(box[3], getY() + bounds[3]);
+        }
+        return box;
+    }
+    
+    /**
+     * Checks if another actor's image bounds overlap this unit's tight hitbox.
+     * Used to confirm the coarse image intersections Greenfoot reports.
+     */
+    public boolean hitboxIntersects(Actor other) {
+        GreenfootImage image = other.getImage();
+        if (image == null) {
+            return false;
+        }
+        // Axis aligned bounds of the other actor's (possibly rotated) image
+        double radians = Math.toRadians(other.getRotation());
+        double cos = Math.abs(Math.cos(radians));
+        double sin = Math.abs(Math.sin(radians));
+        double halfWidth = (image.getWidth() * cos + image.getHeight() * sin) / 2;
+        double halfHeight = (image.getWidth() * sin + image.getHeight() * cos) / 2;
+        
+        int[] box = getHitbox();
+        return other.getX() + halfWidth >= box[0] && other.getX() - halfWidth <= box[2] &&
+               other.getY() + halfHeight >= box[1] && other.getY() - halfHeight <= box[3];
+    }
+    
     /**
      * Gets unit side
      */
@@ -375,12 +536,55 @@ public abstract class Unit extends SuperSmoothMover
     }
     
     /**
-     * Checks if there is an enemy unit within a certain area
+     * Gets the enemy to attack within range r. The last target is kept
+     * while it is still in the world and in range, and no enemy has joined
+     * or left since it was locked; only then is the lane searched again.
+     */
+    public Unit getTarget(int r) {
+        if (!isLockValid(lockedTarget, lockedEpoch, getX(), getY(), r)) {
+            lockedTarget = enemyInRange(r);
+            lockedEpoch = getEnemyEpoch();
+        }
+        return lockedTarget;
+    }
+    
+    /**
+     * Checks if a locked target is still alive and in the world, within r
+     * of a point and locked at the current enemy epoch. Locks never hold
+     * outside a MyWorld, where there is no registry to tell when they go
+     * stale.
+     */
+    protected boolean isLockValid(Unit target, long epoch, int x, int y, int r) {
+        if (target == null || target.hp <= 0 || target.getWorld() == null || !(getWorld() instanceof MyWorld)
+            || epoch != getEnemyEpoch()) {
+            return false;
+        }
+        long dx = target.getX() - x;
+        long dy = target.getY() - y;
+        return dx * dx + dy * dy <= (long) r * r;
+    }
+    
+    /**
+     * Gets the registry epoch of the enemy side, which changes whenever an
+     * enemy joins or leaves the battle
+     */
+    protected long getEnemyEpoch() {
+        if (getWorld() instanceof MyWorld) {
+            return ((MyWorld) getWorld()).getUnits().getEpoch(getSide() == 1 ? 2 : 1);
+        }
+        return -1;
+    }
+    
+    /**
+     * Checks if there is a living enemy unit within a certain area
      */
     public Unit enemyInRange(int r) {
+        if (getWorld() instanceof MyWorld) {
+            return ((MyWorld) getWorld()).getLane(getSide() == 1 ? 2 : 1).nearestWithin(getX(), getY(), r);
+        }
         ArrayList<Unit> enemies = (ArrayList<Unit>) getObjectsInRange(r, Unit.class);
         for (Unit u : enemies) {
-            if (u.getSide() != getSide()) {
+            if (u.getSide() != getSide() && u.getHP() > 0) {
                 return u;
             }
         }
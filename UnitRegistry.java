@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps track of the units in a battle as they join and leave, with
+ * running counts per side, tier and age and a list of the living units of
+ * each side. Counts are read in constant time instead of scanning every
+ * unit in the world, and other code can walk just the side it needs.
+ * 
+ * Each side also has an epoch that goes up whenever one of its units joins
+ * or leaves, so cached decisions about that side can tell when they are
+ * out of date.
+ * 
+ * @author Ricardo Lee
+ */
+public class UnitRegistry
+{
+    public static final String[] TIERS = { "low", "mid", "high" };
+    public static final int MAX_AGE = 4;
+    
+    // Indexed by side (1 or 2), unused slot 0 keeps the sides readable
+    private int[][][] counts = new int[3][TIERS.length][MAX_AGE + 1];
+    private int[] sideCounts = new int[3];
+    private long[] epochs = new long[3];
+    private List<ArrayList<Unit>> alive = new ArrayList<ArrayList<Unit>>();
+    private List<List<Unit>> aliveViews = new ArrayList<List<Unit>>();
+    
+    /**
+     * Creates an empty registry
+     */
+    public UnitRegistry() {
+        for (int side = 0; side <= 2; side++) {
+            ArrayList<Unit> units = new ArrayList<Unit>();
+            alive.add(units);
+            aliveViews.add(Collections.unmodifiableList(units));
+        }
+    }
+    
+    /**
+     * Adds a unit. Adding a unit that is already registered does nothing.
+     */
+    public void add(Unit unit) {
+        if (unit.getRegistryIndex() >= 0) {
+            return;
+        }
+        int side = unit.getSide();
+        unit.setRegistryIndex(alive.get(side).size());
+        alive.get(side).add(unit);
+        counts[side][getTierIndex(unit.getTier())][unit.getAge()]++;
+        sideCounts[side]++;
+        epochs[side]++;
+    }
+    
+    /**
+     * Removes a unit. Removing a unit that is not registered does nothing.
+     */
+    public void remove(Unit unit) {
+        int index = unit.getRegistryIndex();
+        if (index < 0) {
+            return;
+        }
+        int side = unit.getSide();
+        // Swap the last unit into the gap so removal does not shift the list
+        ArrayList<Unit> units = alive.get(side);
+        Unit last = units.remove(units.size() - 1);
+        if (last != unit) {
+            units.set(index, last);
+            last.setRegistryIndex(index);
+        }
+        unit.setRegistryIndex(-1);
+        counts[side][getTierIndex(unit.getTier())][unit.getAge()]--;
+        sideCounts[side]--;
+        epochs[side]++;
+    }
+    
+    /**
+     * Gets the number of units of a side
+     */
+    public int count(int side) {
+        return sideCounts[side];
+    }
+    
+    /**
+     * Gets the number of units of a side of one tier ("low", "mid" or "high")
+     */
+    public int count(int side, String tier) {
+        int total = 0;
+        for (int age = 1; age <= MAX_AGE; age++) {
+            total += counts[side][getTierIndex(tier)][age];
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the number of units of a side of one tier and age
+     */
+    public int count(int side, String tier, int age) {
+        return counts[side][getTierIndex(tier)][age];
+    }
+    
+    /**
+     * Gets the units of a side, in no particular order. The list is live
+     * and read only; do not hold on to it while units are added or removed.
+     */
+    public List<Unit> getUnits(int side) {
+        return aliveViews.get(side);
+    }
+    
+    /**
+     * Gets a number that changes whenever a unit of the side joins or leaves
+     */
+    public long getEpoch(int side) {
+        return epochs[side];
+    }
+    
+    private static int getTierIndex(String tier) {
+        for (int i = 0; i < TIERS.length; i++) {
+            if (TIERS[i].equals(tier)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tier " + tier);
+    }
+}